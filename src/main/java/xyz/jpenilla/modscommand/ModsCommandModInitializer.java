@@ -35,8 +35,6 @@ import xyz.jpenilla.modscommand.configuration.Config;
 import xyz.jpenilla.modscommand.configuration.ConfigHolder;
 import xyz.jpenilla.modscommand.model.Mods;
 
-import static xyz.jpenilla.modscommand.model.Mods.mods;
-
 @NullMarked
 public final class ModsCommandModInitializer implements ModInitializer {
   private static @Nullable ModsCommandModInitializer instance;
@@ -53,8 +51,14 @@ public final class ModsCommandModInitializer implements ModInitializer {
 
     this.loadConfig();
 
-    final Mods mods = mods(); // Initialize so it can't fail later
-    LOGGER.info("Mods Command detected {} loaded mods ({} top-level).", mods.totalModCount(), mods.topLevelModCount()); // We identify ourselves in log messages due to Vanilla MC's terrible Log4j config.
+    // Index in the background so we stay off the startup critical path, but still report failures loudly.
+    Mods.initialize().whenComplete((mods, failure) -> {
+      if (failure != null) {
+        LOGGER.error("Mods Command failed to index loaded mods! Commands will not work.", failure);
+        return;
+      }
+      LOGGER.info("Mods Command detected {} loaded mods ({} top-level).", mods.totalModCount(), mods.topLevelModCount()); // We identify ourselves in log messages due to Vanilla MC's terrible Log4j config.
+    });
 
     final FabricServerCommandManager<Commander> manager = new FabricServerCommandManager<>(
       ExecutionCoordinator.simpleCoordinator(),
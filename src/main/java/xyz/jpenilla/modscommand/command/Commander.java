@@ -16,20 +16,61 @@
  */
 package xyz.jpenilla.modscommand.command;
 
+import java.util.List;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.audience.ForwardingAudience;
 import net.kyori.adventure.platform.modcommon.MinecraftClientAudiences;
+import net.kyori.adventure.text.ComponentLike;
 import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
 import org.jspecify.annotations.NullMarked;
+import xyz.jpenilla.modscommand.model.Mods;
 
 @NullMarked
 public interface Commander extends ForwardingAudience.Single {
+  // stable across command invocations by the same sender, used to key per-sender state
+  Object senderKey();
+
+  // whether the sender can display colors, hover text and click events, rather than just plain text
+  boolean richText();
+
+  // whether this sender's commands and suggestions run on the server or client main thread
+  boolean onMainThread();
+
+  // the main thread fails fast while mods are still being indexed instead of freezing the game
+  default Mods mods() {
+    return this.onMainThread() ? Mods.modsNow() : Mods.mods();
+  }
+
+  // sends already rendered messages, such as a page from Pagination, in order
+  default void sendMessages(final List<? extends ComponentLike> messages) {
+    for (final ComponentLike message : messages) {
+      this.sendMessage(message);
+    }
+  }
+
   record ClientCommander(FabricClientCommandSource source) implements Commander {
     @Override
     public Audience audience() {
       return MinecraftClientAudiences.of().audience();
     }
+
+    @Override
+    public Object senderKey() {
+      return ClientCommander.class; // there is only ever one local player
+    }
+
+    @Override
+    public boolean onMainThread() {
+      return this.source.getClient().isSameThread();
+    }
+
+    @Override
+    public boolean richText() {
+      return true;
+    }
   }
 
   record ServerCommander(CommandSourceStack source) implements Commander {
@@ -37,5 +78,21 @@ public interface Commander extends ForwardingAudience.Single {
     public Audience audience() {
       return this.source;
     }
+
+    @Override
+    public Object senderKey() {
+      final Entity entity = this.source.getEntity();
+      return entity != null ? entity.getUUID() : this.source.getTextName();
+    }
+
+    @Override
+    public boolean onMainThread() {
+      return this.source.getServer().isSameThread();
+    }
+
+    @Override
+    public boolean richText() {
+      return this.source.getEntity() instanceof ServerPlayer; // the console, RCON and command blocks only see flattened text
+    }
   }
 }
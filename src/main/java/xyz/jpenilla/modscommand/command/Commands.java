@@ -16,10 +16,18 @@
  */
 package xyz.jpenilla.modscommand.command;
 
+import org.incendo.cloud.exception.ArgumentParseException;
+import org.incendo.cloud.exception.CommandExecutionException;
+import org.incendo.cloud.exception.handling.ExceptionHandler;
 import org.incendo.cloud.fabric.FabricCommandManager;
 import org.incendo.cloud.minecraft.extras.MinecraftExceptionHandler;
 import org.jspecify.annotations.NullMarked;
 import xyz.jpenilla.modscommand.command.argument.parser.ModDescriptionParser;
+import xyz.jpenilla.modscommand.model.InvalidQueryException;
+import xyz.jpenilla.modscommand.model.ModsNotReadyException;
+
+import static net.kyori.adventure.text.Component.text;
+import static xyz.jpenilla.modscommand.util.Colors.MUSTARD;
 
 @NullMarked
 public final class Commands {
@@ -30,6 +38,12 @@ public final class Commands {
     MinecraftExceptionHandler.<Commander>createNative()
       .defaultHandlers()
       .registerTo(manager);
+    manager.exceptionController()
+      .registerHandler(CommandExecutionException.class, ExceptionHandler.unwrappingHandler(ModsNotReadyException.class))
+      .registerHandler(ArgumentParseException.class, ExceptionHandler.unwrappingHandler(ModsNotReadyException.class))
+      .registerHandler(ModsNotReadyException.class, ctx -> ctx.context().sender().sendMessage(text(ctx.exception().getMessage(), MUSTARD)))
+      .registerHandler(CommandExecutionException.class, ExceptionHandler.unwrappingHandler(InvalidQueryException.class))
+      .registerHandler(InvalidQueryException.class, ctx -> ctx.context().sender().sendMessage(text(ctx.exception().getMessage(), MUSTARD)));
 
     ModDescriptionParser.registerParser(manager);
   }
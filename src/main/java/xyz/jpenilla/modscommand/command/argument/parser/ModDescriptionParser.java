@@ -16,6 +16,9 @@
  */
 package xyz.jpenilla.modscommand.command.argument.parser;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import net.minecraft.network.chat.Component;
 import org.incendo.cloud.CommandManager;
 import org.incendo.cloud.context.CommandContext;
@@ -26,17 +29,25 @@ import org.incendo.cloud.parser.ParserDescriptor;
 import org.incendo.cloud.suggestion.BlockingSuggestionProvider;
 import org.incendo.cloud.suggestion.Suggestion;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import xyz.jpenilla.modscommand.ModsCommandModInitializer;
 import xyz.jpenilla.modscommand.command.Commander;
 import xyz.jpenilla.modscommand.model.ModDescription;
+import xyz.jpenilla.modscommand.model.Mods;
+import xyz.jpenilla.modscommand.model.ModsNotReadyException;
 import xyz.jpenilla.modscommand.util.Colors;
 
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.joining;
 import static org.incendo.cloud.brigadier.suggestion.TooltipSuggestion.suggestion;
 import static org.incendo.cloud.parser.ArgumentParseResult.failure;
 import static org.incendo.cloud.parser.ArgumentParseResult.success;
-import static xyz.jpenilla.modscommand.model.Mods.mods;
 
 @NullMarked
 public final class ModDescriptionParser implements ArgumentParser<Commander, ModDescription>, BlockingSuggestionProvider<Commander> {
+  private static final int MAX_CLOSEST_MODS = 3;
+  private static volatile @Nullable SuggestionIndex suggestionIndex;
+
   public static void registerParser(final CommandManager<Commander> manager) {
     manager.parserRegistry().registerParser(modDescriptionParser());
   }
@@ -47,23 +58,69 @@ public final class ModDescriptionParser implements ArgumentParser<Commander, Mod
 
   @Override
   public ArgumentParseResult<ModDescription> parse(final CommandContext<Commander> commandContext, final CommandInput input) {
+    final Mods mods;
+    try {
+      mods = commandContext.sender().mods();
+    } catch (final ModsNotReadyException ex) {
+      return failure(ex);
+    }
     final String read = input.readString();
-    final ModDescription meta = mods().findMod(read);
+    final ModDescription meta = mods.resolveMod(read);
     if (meta != null) {
       return success(meta);
     }
+    final List<ModDescription> closest = mods.closestMods(read, MAX_CLOSEST_MODS);
+    if (closest.isEmpty()) {
+      return failure(new IllegalArgumentException(
+        String.format("No mod with id '%s'.", read)
+      ));
+    }
     return failure(new IllegalArgumentException(
-      String.format("No mod with id '%s'.", read)
+      String.format("No mod with id '%s'. Did you mean %s?", read, closest.stream().map(ModDescription::modId).collect(joining(", ")))
     ));
   }
 
   @Override
   public Iterable<? extends Suggestion> suggestions(final CommandContext<Commander> commandContext, final CommandInput input) {
-    return mods().allMods()
-      .map(modDescription -> suggestion(
-        modDescription.modId(),
-        Component.literal(modDescription.name()).withColor(Colors.BRIGHT_BLUE.value())
-      ))
-      .toList();
+    final Mods mods = Mods.modsIfReady();
+    if (mods == null) {
+      return List.of();
+    }
+    final int limit = ModsCommandModInitializer.instance().config().maxModSuggestions();
+    return suggestionIndex(mods).matching(input.peekString().toLowerCase(Locale.ENGLISH), limit);
+  }
+
+  private static SuggestionIndex suggestionIndex(final Mods mods) {
+    final SuggestionIndex index = suggestionIndex;
+    if (index != null && index.mods() == mods) {
+      return index;
+    }
+    final List<ModDescription> sorted = mods.allMods().sorted(comparing(ModDescription::modId)).toList();
+    final SuggestionIndex built = new SuggestionIndex(
+      mods,
+      sorted.stream().map(ModDescription::modId).toArray(String[]::new),
+      sorted.stream()
+        .map(modDescription -> suggestion(
+          modDescription.modId(),
+          Component.literal(modDescription.name()).withColor(Colors.BRIGHT_BLUE.value())
+        ))
+        .toArray(Suggestion[]::new)
+    );
+    suggestionIndex = built;
+    return built;
+  }
+
+  private record SuggestionIndex(Mods mods, String[] modIds, Suggestion[] suggestions) {
+    List<Suggestion> matching(final String prefix, final int limit) {
+      int from = Arrays.binarySearch(this.modIds, prefix);
+      if (from < 0) {
+        from = -from - 1;
+      }
+      int to = from;
+      while (to < this.modIds.length && to - from < limit && this.modIds[to].startsWith(prefix)) {
+        to++;
+      }
+      return Arrays.asList(this.suggestions).subList(from, to);
+    }
   }
 }
@@ -37,11 +37,11 @@ import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 import xyz.jpenilla.modscommand.command.Commander;
 import xyz.jpenilla.modscommand.command.RegistrableCommand;
 import xyz.jpenilla.modscommand.model.ModDescription;
+import xyz.jpenilla.modscommand.model.Mods;
 
 import static net.kyori.adventure.text.Component.text;
 import static net.kyori.adventure.text.event.ClickEvent.copyToClipboard;
 import static net.kyori.adventure.text.event.ClickEvent.openFile;
-import static xyz.jpenilla.modscommand.model.Mods.mods;
 import static xyz.jpenilla.modscommand.util.Colors.EMERALD;
 import static xyz.jpenilla.modscommand.util.Colors.PINK;
 
@@ -73,7 +73,7 @@ public final class DumpModsCommand implements RegistrableCommand {
   private void executeDumpModList(final CommandContext<Commander> ctx) {
     final String dump;
     try {
-      dump = createDump();
+      dump = createDump(ctx.sender().mods());
       Files.writeString(this.dumpFile, dump);
     } catch (final IOException ex) {
       throw new RuntimeException("Failed to create mod list dump.", ex);
@@ -97,7 +97,7 @@ public final class DumpModsCommand implements RegistrableCommand {
     ctx.sender().sendMessage(copyMessage);
   }
 
-  private static String createDump() throws ConfigurateException {
+  private static String createDump(final Mods mods) throws ConfigurateException {
     final StringWriter stringWriter = new StringWriter();
     final BufferedWriter bufferedWriter = new BufferedWriter(stringWriter);
     final YamlConfigurationLoader loader = YamlConfigurationLoader.builder()
@@ -122,7 +122,7 @@ public final class DumpModsCommand implements RegistrableCommand {
     java.node("version").set(System.getProperty("java.version"));
 
     final ConfigurationNode modsNode = root.node("mods");
-    for (final ModDescription mod : mods().topLevelMods()) {
+    for (final ModDescription mod : mods.topLevelMods()) {
       serializeModDescriptionToNode(modsNode, mod);
     }
 
@@ -0,0 +1,134 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.command.commands;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import xyz.jpenilla.modscommand.model.ModDescription;
+import xyz.jpenilla.modscommand.util.Pagination;
+
+// Compact JSON for tooling, streamed straight from the model
+@NullMarked
+final class JsonOutput {
+  private JsonOutput() {
+  }
+
+  static String page(final Collection<ModDescription> content, final int page, final int itemsPerPage) {
+    return page(null, null, content, page, itemsPerPage);
+  }
+
+  // 'match' tells callers whether the results actually matched the query or are only close (fuzzy) matches
+  static String search(final String query, final String match, final Collection<ModDescription> content, final int page, final int itemsPerPage) {
+    return page(query, match, content, page, itemsPerPage);
+  }
+
+  private static String page(
+    final @Nullable String query,
+    final @Nullable String match,
+    final Collection<ModDescription> content,
+    final int page,
+    final int itemsPerPage
+  ) {
+    return write(json -> {
+      final Pagination.Slice<ModDescription> slice = Pagination.slice(content, page, itemsPerPage);
+      json.beginObject();
+      if (query != null) {
+        json.name("query").value(query);
+      }
+      if (match != null) {
+        json.name("match").value(match);
+      }
+      json.name("total").value(content.size());
+      json.name("page").value(page);
+      json.name("pages").value(slice.pages());
+      json.name("mods").beginArray();
+      for (final ModDescription mod : slice.items()) {
+        summary(json, mod);
+      }
+      json.endArray();
+      json.endObject();
+    });
+  }
+
+  static String mod(final ModDescription mod) {
+    return write(json -> {
+      json.beginObject();
+      json.name("id").value(mod.modId());
+      json.name("name").value(mod.name());
+      json.name("version").value(mod.version());
+      json.name("description").value(mod.description());
+      json.name("type").value(mod.type());
+      json.name("environment").value(mod.environment().name().toLowerCase(Locale.ENGLISH));
+      strings(json, "authors", mod.authors());
+      strings(json, "contributors", mod.contributors());
+      strings(json, "licenses", mod.licenses());
+      json.name("contact").beginObject();
+      for (final Map.Entry<String, String> contact : mod.contact().entrySet()) {
+        json.name(contact.getKey()).value(contact.getValue());
+      }
+      json.endObject();
+      final ModDescription parent = mod.parent();
+      json.name("parent").value(parent == null ? null : parent.modId());
+      json.name("children").beginArray();
+      for (final ModDescription child : mod.children()) {
+        json.value(child.modId());
+      }
+      json.endArray();
+      json.endObject();
+    });
+  }
+
+  private static void summary(final JsonWriter json, final ModDescription mod) throws IOException {
+    json.beginObject();
+    json.name("id").value(mod.modId());
+    json.name("name").value(mod.name());
+    json.name("version").value(mod.version());
+    json.name("descendants").value(mod.descendantCount());
+    json.endObject();
+  }
+
+  private static void strings(final JsonWriter json, final String name, final Collection<String> values) throws IOException {
+    json.name(name).beginArray();
+    for (final String value : values) {
+      json.value(value);
+    }
+    json.endArray();
+  }
+
+  private static String write(final JsonWriterConsumer consumer) {
+    final StringWriter output = new StringWriter();
+    try (JsonWriter json = new JsonWriter(output)) {
+      json.setSerializeNulls(true);
+      consumer.accept(json);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex); // StringWriter doesn't throw
+    }
+    return output.toString();
+  }
+
+  @FunctionalInterface
+  private interface JsonWriterConsumer {
+    void accept(JsonWriter json) throws IOException;
+  }
+}
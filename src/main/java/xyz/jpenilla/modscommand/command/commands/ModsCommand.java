@@ -18,13 +18,9 @@ package xyz.jpenilla.modscommand.command.commands;
 
 import com.terraformersmc.modmenu.ModMenu;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
-import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.loader.api.FabricLoader;
 import net.kyori.adventure.text.Component;
@@ -40,6 +36,7 @@ import org.incendo.cloud.component.DefaultValue;
 import org.incendo.cloud.component.TypedCommandComponent;
 import org.incendo.cloud.context.CommandContext;
 import org.incendo.cloud.key.CloudKey;
+import org.incendo.cloud.parser.flag.CommandFlag;
 import org.incendo.cloud.permission.Permission;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
@@ -47,10 +44,10 @@ import xyz.jpenilla.modscommand.command.Commander;
 import xyz.jpenilla.modscommand.command.RegistrableCommand;
 import xyz.jpenilla.modscommand.model.Environment;
 import xyz.jpenilla.modscommand.model.ModDescription;
+import xyz.jpenilla.modscommand.model.Mods;
 import xyz.jpenilla.modscommand.util.BiIntFunction;
 import xyz.jpenilla.modscommand.util.Pagination;
 
-import static java.util.Comparator.comparing;
 import static net.kyori.adventure.text.Component.empty;
 import static net.kyori.adventure.text.Component.newline;
 import static net.kyori.adventure.text.Component.space;
@@ -66,9 +63,10 @@ import static net.kyori.adventure.text.format.TextDecoration.ITALIC;
 import static net.kyori.adventure.text.format.TextDecoration.UNDERLINED;
 import static org.incendo.cloud.key.CloudKey.cloudKey;
 import static org.incendo.cloud.parser.standard.IntegerParser.integerParser;
-import static org.incendo.cloud.parser.standard.StringParser.greedyStringParser;
+import static org.incendo.cloud.parser.standard.StringParser.greedyFlagYieldingStringParser;
+import static org.incendo.cloud.parser.standard.StringParser.stringParser;
 import static xyz.jpenilla.modscommand.command.argument.parser.ModDescriptionParser.modDescriptionParser;
-import static xyz.jpenilla.modscommand.model.Mods.mods;
+import static xyz.jpenilla.modscommand.model.Mods.modsNow;
 import static xyz.jpenilla.modscommand.util.Colors.BLUE;
 import static xyz.jpenilla.modscommand.util.Colors.BRIGHT_BLUE;
 import static xyz.jpenilla.modscommand.util.Colors.EMERALD;
@@ -82,12 +80,18 @@ public final class ModsCommand implements RegistrableCommand {
   private static final CloudKey<ModDescription> MOD_ARGUMENT_KEY = cloudKey("mod_id", ModDescription.class);
   private static final CloudKey<Integer> PAGE_ARGUMENT_KEY = cloudKey("page_number", Integer.class);
   private static final CloudKey<String> QUERY_ARGUMENT_KEY = cloudKey("query", String.class);
-  private static final Pattern URL_PATTERN = Pattern.compile("(?:(https?)://)?([-\\w_.]+\\.\\w{2,})(/\\S*)?"); // copied from adventure-text-serializer-legacy
+  private static final CloudKey<String> TOKEN_ARGUMENT_KEY = cloudKey("token", String.class);
+  private static final int SEARCH_RESULTS_PER_PAGE = 8;
+  private static final CommandFlag<Void> JSON_FLAG = CommandFlag.builder("json").build();
+  private static final CommandFlag<Void> RANKED_FLAG = CommandFlag.builder("ranked").build();
   private static final Component GRAY_SEPARATOR = text(':', GRAY);
   private static final Component DASH = text(" - ", MIDNIGHT_BLUE);
 
   private final String label;
   private final @Nullable Permission permission;
+  private final PageCursors cursors = new PageCursors();
+  private volatile @Nullable Rendered rendered;
+  private volatile @Nullable ModList modList;
 
   public ModsCommand(final String primaryAlias, final @Nullable Permission permission) {
     this.label = primaryAlias;
@@ -96,6 +100,7 @@ public final class ModsCommand implements RegistrableCommand {
 
   @Override
   public void register(final CommandManager<Commander> manager) {
+    Mods.initialize().thenAcceptAsync(this::modList); // prewarm once the snapshot is ready
     final Command.Builder<Commander> base = manager.commandBuilder(this.label);
     final Command.Builder<Commander> mods;
     if (this.permission != null) {
@@ -104,26 +109,40 @@ public final class ModsCommand implements RegistrableCommand {
       mods = base;
     }
     manager.command(
-      mods.handler(this::executeListMods)
+      mods.flag(JSON_FLAG)
+        .handler(this::executeListMods)
     );
     manager.command(
       mods.literal("page")
         .argument(pageArgument())
+        .flag(JSON_FLAG)
         .handler(this::executeListMods)
     );
     final Command.Builder<Commander> info = mods.literal("info")
       .required(MOD_ARGUMENT_KEY, modDescriptionParser());
-    manager.command(info.handler(this::executeModInfo));
+    manager.command(
+      info.flag(JSON_FLAG)
+        .handler(this::executeModInfo)
+    );
     manager.command(
       info.literal("children")
         .argument(pageArgument())
+        .flag(JSON_FLAG)
         .handler(this::executeListChildren)
     );
     manager.command(
       mods.literal("search")
-        .required(QUERY_ARGUMENT_KEY, greedyStringParser())
+        .required(QUERY_ARGUMENT_KEY, greedyFlagYieldingStringParser())
+        .flag(RANKED_FLAG)
+        .flag(JSON_FLAG)
         .handler(this::executeSearch)
     );
+    manager.command(
+      mods.literal("page-token")
+        .required(TOKEN_ARGUMENT_KEY, stringParser())
+        .argument(pageArgument())
+        .handler(this::executePageToken)
+    );
 
     if (FabricLoader.getInstance().getEnvironmentType() == EnvType.CLIENT && FabricLoader.getInstance().isModLoaded("modmenu")) {
       manager.command(
@@ -154,22 +173,51 @@ public final class ModsCommand implements RegistrableCommand {
 
   private void executeListMods(final CommandContext<Commander> ctx) {
     final int page = ctx.optional(PAGE_ARGUMENT_KEY).orElse(1);
+    final Mods mods = ctx.sender().mods();
+    if (ctx.flags().isPresent(JSON_FLAG)) {
+      ctx.sender().sendMessage(text(JsonOutput.page(mods.topLevelMods(), page, 8)));
+      return;
+    }
+    if (!ctx.sender().richText()) {
+      final String header = String.format("Loaded Mods (%s total, %s top-level)", mods.totalModCount(), mods.topLevelModCount());
+      ctx.sender().sendMessage(text(PlainText.page(header, mods.topLevelMods(), page, 8)));
+      return;
+    }
+    ctx.sender().sendMessages(this.modList(mods).pages().render(page));
+  }
+
+  // The top-level listing never changes for a snapshot, so all of its pages are rendered once
+  private ModList modList(final Mods mods) {
+    final ModList cached = this.modList;
+    if (cached != null && cached.version() == mods.version()) {
+      return cached;
+    }
     final Pagination<ModDescription> pagination = Pagination.<ModDescription>builder()
       .header((currentPage, pages) -> Component.textOfChildren(
         text("Loaded Mods", PURPLE, BOLD),
-        text(String.format(" (%s total, %s top-level)", mods().totalModCount(), mods().topLevelModCount()), GRAY, ITALIC)
+        text(String.format(" (%s total, %s top-level)", mods.totalModCount(), mods.topLevelModCount()), GRAY, ITALIC)
       ))
       .footer(this.footerRenderer(p -> String.format("/%s page %d", this.label, p)))
       .pageOutOfRange(ModsCommand::pageOutOfRange)
-      .item((item, lastOfPage) -> Component.textOfChildren(DASH, this.shortModDescription(item)))
+      .item((item, lastOfPage) -> this.row(item))
       .build();
-    pagination.render(mods().topLevelMods(), page, 8).forEach(ctx.sender()::sendMessage);
+    final ModList modList = new ModList(mods.version(), pagination.precompile(mods.topLevelMods(), 8));
+    this.modList = modList;
+    return modList;
   }
 
   private void executeListChildren(final CommandContext<Commander> ctx) {
     final ModDescription mod = ctx.get(MOD_ARGUMENT_KEY);
     final int page = ctx.get(PAGE_ARGUMENT_KEY);
+    if (ctx.flags().isPresent(JSON_FLAG)) {
+      ctx.sender().sendMessage(text(JsonOutput.page(mod.children(), page, 8)));
+      return;
+    }
     if (mod.children().isEmpty()) {
+      if (!ctx.sender().richText()) {
+        ctx.sender().sendMessage(text("Mod " + mod.name() + " does not have any child mods!"));
+        return;
+      }
       final TextComponent.Builder message = text()
         .color(MUSTARD)
         .content("Mod ")
@@ -180,6 +228,10 @@ public final class ModsCommand implements RegistrableCommand {
       ctx.sender().sendMessage(message);
       return;
     }
+    if (!ctx.sender().richText()) {
+      ctx.sender().sendMessage(text(PlainText.page(mod.name() + " child mods", mod.children(), page, 8)));
+      return;
+    }
     final Pagination<ModDescription> pagination = Pagination.<ModDescription>builder()
       .header((currentPage, pages) -> text()
         .color(MUSTARD)
@@ -187,35 +239,31 @@ public final class ModsCommand implements RegistrableCommand {
         .append(text(" child mods")))
       .footer(this.footerRenderer(p -> String.format("/%s info %s children %s", this.label, mod.modId(), p)))
       .pageOutOfRange(ModsCommand::pageOutOfRange)
-      .item((item, lastOfPage) -> Component.textOfChildren(DASH, this.shortModDescription(item)))
+      .item((item, lastOfPage) -> this.row(item))
       .build();
-    pagination.render(mod.children(), page, 8).forEach(ctx.sender()::sendMessage);
+    ctx.sender().sendMessages(pagination.render(mod.children(), page, 8));
   }
 
   private void executeSearch(final CommandContext<Commander> ctx) {
-    final String rawQuery = ctx.optional(QUERY_ARGUMENT_KEY).orElse("").toLowerCase(Locale.ENGLISH).trim();
-    final String[] split = rawQuery.split(" ");
-    int page = 1;
-    String tempQuery = rawQuery;
-    if (split.length > 1) {
-      try {
-        final String pageText = split[split.length - 1];
-        page = Integer.parseInt(pageText);
-        tempQuery = rawQuery.substring(0, Math.max(rawQuery.lastIndexOf(pageText) - 1, 0));
-      } catch (final NumberFormatException ex) {
-        page = 1;
-        tempQuery = rawQuery;
-      }
-    }
-    final String query = tempQuery;
+    final SearchArguments arguments = SearchArguments.parse(ctx.optional(QUERY_ARGUMENT_KEY).orElse(""));
+    final String query = arguments.query();
+    final boolean ranked = ctx.flags().isPresent(RANKED_FLAG);
+    final Mods mods = ctx.sender().mods();
 
-    final List<ModDescription> results = mods().allMods()
-      .filter(matchesQuery(query))
-      .flatMap(match -> Stream.concat(match.parentStream(), match.selfAndChildren()))
-      .distinct()
-      .sorted(comparing(ModDescription::modId))
-      .toList();
+    final List<ModDescription> matches = ranked ? mods.rankedSearch(query) : mods.search(query);
+    // typo tolerance only makes sense for a plain phrase, not for fields and operators like 'env:server -id:fabric'
+    final boolean fuzzy = matches.isEmpty() && (ranked || mods.isPlainTextQuery(query));
+    final List<ModDescription> results = fuzzy ? mods.fuzzySearch(query) : matches;
+    if (ctx.flags().isPresent(JSON_FLAG)) {
+      final String match = fuzzy ? "fuzzy" : ranked ? "ranked" : "exact";
+      ctx.sender().sendMessage(text(JsonOutput.search(query, match, results, arguments.page(), 8)));
+      return;
+    }
     if (results.isEmpty()) {
+      if (!ctx.sender().richText()) {
+        ctx.sender().sendMessage(text("No results for query '" + query + "'."));
+        return;
+      }
       ctx.sender().sendMessage(
         text()
           .color(MUSTARD)
@@ -225,30 +273,69 @@ public final class ModsCommand implements RegistrableCommand {
       );
       return;
     }
-    final Pagination<ModDescription> pagination = Pagination.<ModDescription>builder()
+    final String resultKind = fuzzy ? " close matches for query" : ranked ? " ranked results for query" : " results for query";
+    if (!ctx.sender().richText()) {
+      ctx.sender().sendMessage(text(PlainText.page(results.size() + resultKind + ": " + query, results, arguments.page(), 8)));
+      return;
+    }
+    if (results.size() <= SEARCH_RESULTS_PER_PAGE) {
+      // no page buttons to link, so don't spend one of the sender's cursors
+      final Pagination<ModDescription> pagination = this.searchPagination(results, resultKind, query, p -> String.format("/%s search %s %d", this.label, query, p));
+      ctx.sender().sendMessages(pagination.render(results, arguments.page(), SEARCH_RESULTS_PER_PAGE));
+      return;
+    }
+    final PageCursors.Cursor<ModDescription> cursor = this.cursors.open(ctx.sender(), token -> new PageCursors.Cursor<>(
+      this.searchPagination(results, resultKind, query, p -> String.format("/%s page-token %s %d", this.label, token, p)),
+      results,
+      SEARCH_RESULTS_PER_PAGE
+    ));
+    ctx.sender().sendMessages(cursor.render(arguments.page()));
+  }
+
+  private Pagination<ModDescription> searchPagination(
+    final List<ModDescription> results,
+    final String resultKind,
+    final String query,
+    final IntFunction<String> pageCommand
+  ) {
+    return Pagination.<ModDescription>builder()
       .header((currentPage, pages) -> Component.textOfChildren(
         text()
           .decorate(BOLD)
           .append(text(results.size(), PINK))
-          .append(text(" results for query", PURPLE)),
+          .append(text(resultKind, PURPLE)),
         GRAY_SEPARATOR,
         space(),
         text(query, MUSTARD)
       ))
-      .footer(this.footerRenderer(p -> String.format("/%s search %s %d", this.label, query, p)))
+      .footer(this.footerRenderer(pageCommand))
       .pageOutOfRange(ModsCommand::pageOutOfRange)
-      .item((item, lastOfPage) -> Component.textOfChildren(DASH, this.shortModDescription(item)))
+      .item((item, lastOfPage) -> this.row(item))
       .build();
-    pagination.render(results, page, 8).forEach(ctx.sender()::sendMessage);
   }
 
-  private static Predicate<ModDescription> matchesQuery(final String query) {
-    final String queryLower = query.toLowerCase(Locale.ENGLISH);
-    return mod -> mod.modId().toLowerCase(Locale.ENGLISH).contains(queryLower)
-      || mod.name().toLowerCase(Locale.ENGLISH).contains(queryLower)
-      || "clientsided client-sided client sided".contains(queryLower) && mod.environment() == Environment.CLIENT
-      || "serversided server-sided server sided".contains(queryLower) && mod.environment() == Environment.SERVER
-      || mod.authors().stream().anyMatch(author -> author.toLowerCase(Locale.ENGLISH).contains(queryLower));
+  private void executePageToken(final CommandContext<Commander> ctx) {
+    final PageCursors.Cursor<?> cursor = this.cursors.get(ctx.sender(), ctx.get(TOKEN_ARGUMENT_KEY));
+    if (cursor == null) {
+      ctx.sender().sendMessage(text("These results have expired, please run the command again.", MUSTARD));
+      return;
+    }
+    ctx.sender().sendMessages(cursor.render(ctx.get(PAGE_ARGUMENT_KEY)));
+  }
+
+  private record SearchArguments(String query, int page) {
+    static SearchArguments parse(final String input) {
+      final String query = input.trim(); // not folded, AND/OR/NOT are case-sensitive
+      final int lastSpace = query.lastIndexOf(' ');
+      if (lastSpace != -1) {
+        try {
+          return new SearchArguments(query.substring(0, lastSpace).trim(), Integer.parseInt(query.substring(lastSpace + 1)));
+        } catch (final NumberFormatException ex) {
+          // not a page number, part of the query
+        }
+      }
+      return new SearchArguments(query, 1);
+    }
   }
 
   private BiIntFunction<ComponentLike> footerRenderer(final IntFunction<String> commandFunction) {
@@ -307,6 +394,29 @@ public final class ModsCommand implements RegistrableCommand {
 
   private void executeModInfo(final CommandContext<Commander> ctx) {
     final ModDescription mod = ctx.get(MOD_ARGUMENT_KEY);
+    if (ctx.flags().isPresent(JSON_FLAG)) {
+      ctx.sender().sendMessage(text(JsonOutput.mod(mod)));
+      return;
+    }
+    if (!ctx.sender().richText()) {
+      ctx.sender().sendMessage(text(PlainText.infoCard(mod)));
+      return;
+    }
+    ctx.sender().sendMessage(this.infoCard(mod));
+  }
+
+  private Component infoCard(final ModDescription mod) {
+    final AtomicReferenceArray<Component> infoCards = this.rendered(modsNow()).infoCards();
+    final int ordinal = modsNow().ordinal(mod);
+    Component infoCard = infoCards.get(ordinal);
+    if (infoCard == null) {
+      infoCard = this.renderInfoCard(mod);
+      infoCards.set(ordinal, infoCard);
+    }
+    return infoCard;
+  }
+
+  private Component renderInfoCard(final ModDescription mod) {
     final TextComponent.Builder builder = text()
       .append(coloredBoldModName(mod))
       .color(MUSTARD)
@@ -408,11 +518,11 @@ public final class ModsCommand implements RegistrableCommand {
         final TextComponent.Builder info = text()
           .append(space())
           .append(DASH)
-          .append(labelled(key, openUrlOrCopyToClipboard(value)));
+          .append(labelled(key, openUrlOrCopyToClipboard(value, mod.urlContacts().contains(key))));
         builder.append(info);
       });
     }
-    ctx.sender().sendMessage(builder);
+    return builder.build();
   }
 
   private static Component labelled(final String label, final ComponentLike value) {
@@ -426,12 +536,11 @@ public final class ModsCommand implements RegistrableCommand {
     return builder.build();
   }
 
-  private static Component openUrlOrCopyToClipboard(final String value) {
+  private static Component openUrlOrCopyToClipboard(final String value, final boolean url) {
     final TextComponent.Builder builder = text()
       .content(value)
       .color(BRIGHT_BLUE);
-    final Matcher matcher = URL_PATTERN.matcher(value);
-    if (matcher.find() && matcher.group().equals(value)) {
+    if (url) {
       builder.hoverEvent(text("Click to open url!", EMERALD));
       builder.clickEvent(openUrl(value));
       builder.decorate(UNDERLINED);
@@ -442,6 +551,27 @@ public final class ModsCommand implements RegistrableCommand {
     return builder.build();
   }
 
+  // Rows and info cards only depend on the label and the mod, so they are rendered once per snapshot and shared by every sender
+  private Rendered rendered(final Mods mods) {
+    Rendered rendered = this.rendered;
+    if (rendered == null || rendered.version() != mods.version()) {
+      rendered = new Rendered(mods.version(), new AtomicReferenceArray<>(mods.totalModCount()), new AtomicReferenceArray<>(mods.totalModCount()));
+      this.rendered = rendered;
+    }
+    return rendered;
+  }
+
+  private Component row(final ModDescription mod) {
+    final AtomicReferenceArray<Component> rows = this.rendered(modsNow()).rows();
+    final int ordinal = modsNow().ordinal(mod);
+    Component row = rows.get(ordinal);
+    if (row == null) {
+      row = Component.textOfChildren(DASH, this.shortModDescription(mod));
+      rows.set(ordinal, row);
+    }
+    return row;
+  }
+
   private Component shortModDescription(final ModDescription mod) {
     final TextComponent.Builder builder = text()
       .apply(this.modClickAndHover(mod))
@@ -452,7 +582,7 @@ public final class ModsCommand implements RegistrableCommand {
     }
     if (!mod.children().isEmpty()) {
       final String mods = mod.children().size() == 1 ? "mod" : "mods";
-      builder.append(text(String.format(" (%d child %s)", mod.childrenStream().count(), mods), GRAY, ITALIC));
+      builder.append(text(String.format(" (%d child %s)", mod.descendantCount(), mods), GRAY, ITALIC));
     }
     return builder.build();
   }
@@ -482,4 +612,10 @@ public final class ModsCommand implements RegistrableCommand {
   private ClickEvent<?> modInfo(final ModDescription description) {
     return runCommand(String.format("/%s info %s", this.label, description.modId()));
   }
+
+  private record Rendered(int version, AtomicReferenceArray<Component> rows, AtomicReferenceArray<Component> infoCards) {
+  }
+
+  private record ModList(int version, Pagination.Precompiled<ModDescription> pages) {
+  }
 }
@@ -0,0 +1,83 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.command.commands;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import net.kyori.adventure.text.Component;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import xyz.jpenilla.modscommand.command.Commander;
+import xyz.jpenilla.modscommand.util.Pagination;
+
+// Short-lived per-sender result sets, so page buttons can refer to a token instead of repeating the query
+@NullMarked
+final class PageCursors {
+  private static final long TTL_NANOS = Duration.ofMinutes(5).toNanos();
+  private static final int MAX_CURSORS_PER_SENDER = 8;
+
+  private final Map<Object, LinkedHashMap<String, Cursor<?>>> cursors = new HashMap<>();
+
+  synchronized <T> Cursor<T> open(final Commander sender, final Function<String, Cursor<T>> factory) {
+    this.evictExpired();
+    final LinkedHashMap<String, Cursor<?>> senderCursors = this.cursors.computeIfAbsent(sender.senderKey(), $ -> new LinkedHashMap<>());
+    String token;
+    do {
+      token = Integer.toString(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), Character.MAX_RADIX);
+    } while (senderCursors.containsKey(token));
+    final Cursor<T> cursor = factory.apply(token);
+    senderCursors.put(token, cursor);
+    if (senderCursors.size() > MAX_CURSORS_PER_SENDER) {
+      senderCursors.remove(senderCursors.keySet().iterator().next());
+    }
+    return cursor;
+  }
+
+  synchronized @Nullable Cursor<?> get(final Commander sender, final String token) {
+    this.evictExpired();
+    final Map<String, Cursor<?>> senderCursors = this.cursors.get(sender.senderKey());
+    return senderCursors == null ? null : senderCursors.get(token);
+  }
+
+  private void evictExpired() {
+    final long now = System.nanoTime();
+    final Iterator<LinkedHashMap<String, Cursor<?>>> senders = this.cursors.values().iterator();
+    while (senders.hasNext()) {
+      final LinkedHashMap<String, Cursor<?>> senderCursors = senders.next();
+      senderCursors.values().removeIf(cursor -> now - cursor.created() > TTL_NANOS);
+      if (senderCursors.isEmpty()) {
+        senders.remove();
+      }
+    }
+  }
+
+  record Cursor<T>(Pagination<T> pagination, List<T> content, int itemsPerPage, long created) {
+    Cursor(final Pagination<T> pagination, final List<T> content, final int itemsPerPage) {
+      this(pagination, content, itemsPerPage, System.nanoTime());
+    }
+
+    List<Component> render(final int page) {
+      return this.pagination.render(this.content, page, this.itemsPerPage);
+    }
+  }
+}
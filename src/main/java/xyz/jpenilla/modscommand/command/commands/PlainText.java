@@ -0,0 +1,108 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.command.commands;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.jspecify.annotations.NullMarked;
+import xyz.jpenilla.modscommand.model.Environment;
+import xyz.jpenilla.modscommand.model.ModDescription;
+import xyz.jpenilla.modscommand.util.Pagination;
+
+// Renders ModsCommand output straight to strings for senders that can't show colors, hover text or click events
+@NullMarked
+final class PlainText {
+  private PlainText() {
+  }
+
+  static String page(final String header, final Collection<ModDescription> content, final int page, final int itemsPerPage) {
+    final Pagination.Slice<ModDescription> slice = Pagination.slice(content, page, itemsPerPage);
+    if (!slice.inRange()) {
+      return "Page " + page + " is out of range! There are only " + slice.pages() + " pages of results.";
+    }
+    final StringBuilder builder = new StringBuilder(header);
+    for (final ModDescription mod : slice.items()) {
+      builder.append("\n - ");
+      row(builder, mod);
+    }
+    if (slice.pages() > 1) {
+      builder.append("\nPage ").append(page).append('/').append(slice.pages());
+    }
+    return builder.toString();
+  }
+
+  static void row(final StringBuilder builder, final ModDescription mod) {
+    builder.append(mod.name()).append(" (").append(mod.modId()).append(')');
+    if (!mod.version().isEmpty()) {
+      builder.append(" v").append(mod.version());
+    }
+    if (!mod.children().isEmpty()) {
+      builder.append(" (").append(mod.descendantCount()).append(mod.children().size() == 1 ? " child mod)" : " child mods)");
+    }
+  }
+
+  static String infoCard(final ModDescription mod) {
+    final StringBuilder builder = new StringBuilder(mod.name());
+    field(builder, "mod id", mod.modId());
+    if (!mod.version().isEmpty()) {
+      field(builder, "version", mod.version());
+    }
+    if (!mod.description().isEmpty()) {
+      field(builder, "description", mod.description());
+    }
+    if (!mod.authors().isEmpty()) {
+      field(builder, "authors", String.join(", ", mod.authors()));
+    }
+    if (!mod.contributors().isEmpty()) {
+      field(builder, "contributors", String.join(", ", mod.contributors()));
+    }
+    if (!mod.licenses().isEmpty()) {
+      field(builder, "license", String.join(", ", mod.licenses()));
+    }
+    field(builder, "type", mod.type());
+    if (mod.environment() != Environment.UNIVERSAL) {
+      field(builder, "environment", mod.environment().name().toLowerCase(Locale.ENGLISH));
+    }
+    final ModDescription parent = mod.parent();
+    if (parent != null) {
+      field(builder, "parent mod", parent.modId());
+    }
+    if (!mod.children().isEmpty()) {
+      builder.append("\n child mods: ");
+      final List<ModDescription> children = mod.children();
+      for (int i = 0; i < children.size(); i++) {
+        if (i > 0) {
+          builder.append(", ");
+        }
+        builder.append(children.get(i).modId());
+      }
+    }
+    if (!mod.contact().isEmpty()) {
+      builder.append("\n contact:");
+      for (final Map.Entry<String, String> contact : mod.contact().entrySet()) {
+        builder.append("\n  - ").append(contact.getKey()).append(": ").append(contact.getValue());
+      }
+    }
+    return builder.toString();
+  }
+
+  private static void field(final StringBuilder builder, final String label, final String value) {
+    builder.append("\n ").append(label).append(": ").append(value);
+  }
+}
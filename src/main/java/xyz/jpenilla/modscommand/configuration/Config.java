@@ -26,6 +26,7 @@ import org.spongepowered.configurate.objectmapping.meta.Comment;
 @NullMarked
 public final class Config {
   private HiddenMods hiddenMods = new HiddenMods();
+  private Suggestions suggestions = new Suggestions();
 
   @ConfigSerializable
   public static final class HiddenMods {
@@ -33,7 +34,17 @@ public final class Config {
     private Set<String> hiddenModIds = new HashSet<>();
   }
 
+  @ConfigSerializable
+  public static final class Suggestions {
+    @Comment("Set the maximum number of mod ids suggested when tab-completing a mod argument.")
+    private int maxModSuggestions = 50;
+  }
+
   public Set<String> hiddenModIds() {
     return this.hiddenMods.hiddenModIds;
   }
+
+  public int maxModSuggestions() {
+    return this.suggestions.maxModSuggestions;
+  }
 }
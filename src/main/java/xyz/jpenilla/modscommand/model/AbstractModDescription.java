@@ -16,9 +16,18 @@
  */
 package xyz.jpenilla.modscommand.model;
 
+import io.leangen.geantyref.TypeToken;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
@@ -26,8 +35,18 @@ import static java.util.Comparator.comparing;
 
 @NullMarked
 public abstract class AbstractModDescription implements ModDescription {
-  private final List<ModDescription> children = new ArrayList<>();
+  static final int ID_KEY = 0;
+  static final int NAME_KEY = 1;
+  static final int FIRST_AUTHOR_KEY = 2;
+  private static final Pattern URL_PATTERN = Pattern.compile("(?:(https?)://)?([-\\w_.]+\\.\\w{2,})(/\\S*)?"); // copied from adventure-text-serializer-legacy
+
+  private final List<ModDescription> pendingChildren = new ArrayList<>();
+  private List<ModDescription> children = Collections.unmodifiableList(this.pendingChildren);
+  private boolean frozen = false;
   private @Nullable ModDescription parent = null;
+  private final Map<Class<?>, Object> attributes = new IdentityHashMap<>();
+  private @Nullable ModTree tree = null;
+  private int node = -1;
 
   protected AbstractModDescription(final List<ModDescription> children) {
     for (final ModDescription child : children) {
@@ -39,9 +58,93 @@ public abstract class AbstractModDescription implements ModDescription {
     if (!(newChild instanceof AbstractModDescription newChildAbs)) {
       throw new IllegalArgumentException(String.format("Cannot add non-AbstractModDescription as a child. Attempted to add %s '%s'.", newChild.getClass().getName(), newChild));
     }
+    if (this.frozen) {
+      throw new IllegalStateException(String.format("Cannot add child '%s' to '%s', it has already been frozen.", newChild.modId(), this.modId()));
+    }
     newChildAbs.parent = this;
-    this.children.add(newChild);
-    this.children.sort(comparing(ModDescription::modId));
+    this.pendingChildren.add(newChild);
+  }
+
+  public final <A> void putAttribute(final Class<A> type, final A value) {
+    if (this.frozen) {
+      throw new IllegalStateException(String.format("Cannot add attribute %s to '%s', it has already been frozen.", type.getName(), this.modId()));
+    }
+    this.attributes.put(type, value);
+  }
+
+  @Override
+  public boolean hasAttribute(final Class<?> type) {
+    return this.attributes.containsKey(type);
+  }
+
+  @Override
+  public boolean hasAttribute(final TypeToken<?> type) {
+    return type.getType() instanceof Class<?> clazz && this.attributes.containsKey(clazz);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <A> A attribute(final Class<A> type) {
+    final Object value = this.attributes.get(type);
+    if (value == null) {
+      throw new IllegalArgumentException(String.format("Mod '%s' does not have attribute %s.", this.modId(), type.getName()));
+    }
+    return (A) value;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <A> A attribute(final TypeToken<A> type) {
+    if (type.getType() instanceof Class<?> clazz) {
+      return this.attribute((Class<A>) clazz);
+    }
+    throw new IllegalArgumentException(String.format("Mod '%s' does not have attribute %s.", this.modId(), type.getType().getTypeName()));
+  }
+
+  final List<ModDescription> freezeChildren() {
+    if (!this.frozen) {
+      this.pendingChildren.sort(comparing(ModDescription::modId));
+      this.children = List.copyOf(this.pendingChildren);
+      this.pendingChildren.clear();
+      this.frozen = true;
+    }
+    return this.children;
+  }
+
+  final void attach(final ModTree tree, final int node) {
+    this.tree = tree;
+    this.node = node;
+  }
+
+  final int node() {
+    return this.node;
+  }
+
+  // Folded id, name and authors, matched by search. Implementations in this package precompute these at construction.
+  String[] searchKeys() {
+    return searchKeys(this.modId(), this.name(), this.authors());
+  }
+
+  static String[] searchKeys(final String modId, final String name, final Collection<String> authors) {
+    final String[] keys = new String[FIRST_AUTHOR_KEY + authors.size()];
+    keys[ID_KEY] = TrigramIndex.fold(modId);
+    keys[NAME_KEY] = TrigramIndex.fold(name);
+    int i = FIRST_AUTHOR_KEY;
+    for (final String author : authors) {
+      keys[i++] = TrigramIndex.fold(author);
+    }
+    return keys;
+  }
+
+  static Set<String> urlContacts(final Map<String, String> contact) {
+    final Set<String> urls = new HashSet<>();
+    contact.forEach((key, value) -> {
+      final Matcher matcher = URL_PATTERN.matcher(value);
+      if (matcher.find() && matcher.group().equals(value)) {
+        urls.add(key);
+      }
+    });
+    return Set.copyOf(urls);
   }
 
   @Override
@@ -51,7 +154,52 @@ public abstract class AbstractModDescription implements ModDescription {
 
   @Override
   public List<ModDescription> children() {
-    return Collections.unmodifiableList(this.children);
+    return this.children;
+  }
+
+  @Override
+  public Stream<ModDescription> parentStream() {
+    final ModTree tree = this.tree;
+    if (tree == null) {
+      return ModDescription.super.parentStream();
+    }
+    return tree.ancestors(this.node);
+  }
+
+  @Override
+  public Stream<ModDescription> selfAndParents() {
+    final ModTree tree = this.tree;
+    if (tree == null) {
+      return ModDescription.super.selfAndParents();
+    }
+    return tree.selfAndAncestors(this.node);
+  }
+
+  @Override
+  public Stream<ModDescription> childrenStream() {
+    final ModTree tree = this.tree;
+    if (tree == null) {
+      return ModDescription.super.childrenStream();
+    }
+    return tree.descendants(this.node);
+  }
+
+  @Override
+  public Stream<ModDescription> selfAndChildren() {
+    final ModTree tree = this.tree;
+    if (tree == null) {
+      return ModDescription.super.selfAndChildren();
+    }
+    return tree.selfAndDescendants(this.node);
+  }
+
+  @Override
+  public int descendantCount() {
+    final ModTree tree = this.tree;
+    if (tree == null) {
+      return ModDescription.super.descendantCount();
+    }
+    return tree.descendantCount(this.node);
   }
 
   @Override
@@ -0,0 +1,71 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.function.Supplier;
+import net.fabricmc.loader.api.metadata.ModMetadata;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Groups mods under a parent mod in the mod tree.
+ *
+ * <p>Mods are classified once, then every rule is consulted for each mod in a single pass. The
+ * first rule to return a placement under a parent that is installed or can be synthesized decides
+ * the parent. Other mods can contribute rules using the {@value #ENTRYPOINT} entrypoint; these are
+ * consulted before the built-in rules.</p>
+ *
+ * <p>Rules may be called concurrently for different mods and must not depend on call order.</p>
+ */
+@NullMarked
+public interface ArrangementRule {
+  String ENTRYPOINT = "mods-command:arrangement";
+
+  @Nullable Placement place(Candidate mod, Context context);
+
+  interface Candidate {
+    ModDescription description();
+
+    default String modId() {
+      return this.description().modId();
+    }
+
+    @Nullable ModMetadata metadata();
+
+    boolean hasCustomValue(String key);
+
+    @Nullable String modMenuParent();
+
+    boolean fabricApiModule();
+
+    boolean loomGenerated();
+  }
+
+  interface Context {
+    boolean isPresent(String modId);
+  }
+
+  record Placement(String parentId, @Nullable Supplier<ModDescription> syntheticParent) {
+    public static Placement under(final String parentId) {
+      return new Placement(parentId, null);
+    }
+
+    public static Placement under(final String parentId, final Supplier<ModDescription> syntheticParent) {
+      return new Placement(parentId, syntheticParent);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Attaches extra attributes, such as jar size or mixin count, to loaded mods.
+ *
+ * <p>Providers are registered using the {@value #ENTRYPOINT} entrypoint and run once per mod
+ * while the snapshot is built, before mods are arranged. They may be called concurrently for
+ * different mods. Attributes are looked up by exact class using
+ * {@link ModDescription#attribute(Class)}.</p>
+ */
+@NullMarked
+public interface AttributeProvider {
+  String ENTRYPOINT = "mods-command:attributes";
+
+  void provide(ModDescription mod, Attributes attributes);
+
+  interface Attributes {
+    <A> void put(Class<A> type, A value);
+  }
+}
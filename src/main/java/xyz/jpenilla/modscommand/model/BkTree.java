@@ -0,0 +1,112 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// Burkhard-Keller tree over Levenshtein distance; the triangle inequality lets a lookup
+// skip every subtree whose edge distance is further than maxDistance from the query's
+@NullMarked
+final class BkTree {
+  private final Node root;
+
+  BkTree(final Map<String, int[]> keys) {
+    if (keys.isEmpty()) {
+      throw new IllegalArgumentException("Cannot build a BK-tree without keys.");
+    }
+    final Iterator<Map.Entry<String, int[]>> entries = new TreeMap<>(keys).entrySet().iterator();
+    final Map.Entry<String, int[]> first = entries.next();
+    this.root = new Node(first.getKey(), first.getValue());
+    while (entries.hasNext()) {
+      final Map.Entry<String, int[]> entry = entries.next();
+      this.root.insert(new Node(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  // ordinal -> closest distance of any of its keys, for ordinals within maxDistance edits
+  Map<Integer, Integer> search(final String folded, final int maxDistance) {
+    final Map<Integer, Integer> matches = new TreeMap<>();
+    final Deque<Node> queue = new ArrayDeque<>();
+    queue.add(this.root);
+    while (!queue.isEmpty()) {
+      final Node node = queue.poll();
+      final int distance = distance(node.key, folded);
+      if (distance <= maxDistance) {
+        for (final int ordinal : node.ordinals) {
+          matches.merge(ordinal, distance, Math::min);
+        }
+      }
+      if (node.children != null) {
+        for (final Map.Entry<Integer, Node> child : node.children.subMap(distance - maxDistance, true, distance + maxDistance, true).entrySet()) {
+          queue.add(child.getValue());
+        }
+      }
+    }
+    return matches;
+  }
+
+  static int distance(final String a, final String b) {
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      for (int j = 1; j <= b.length(); j++) {
+        final int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+        current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+      }
+      final int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length()];
+  }
+
+  private static final class Node {
+    private final String key;
+    private final int[] ordinals;
+    private @Nullable TreeMap<Integer, Node> children;
+
+    Node(final String key, final int[] ordinals) {
+      this.key = key;
+      this.ordinals = ordinals;
+    }
+
+    void insert(final Node node) {
+      Node parent = this;
+      while (true) {
+        final int distance = distance(parent.key, node.key);
+        if (parent.children == null) {
+          parent.children = new TreeMap<>();
+        }
+        final Node existing = parent.children.putIfAbsent(distance, node);
+        if (existing == null) {
+          return;
+        }
+        parent = existing;
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.List;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+@NullMarked
+enum BuiltinArrangementRules implements ArrangementRule {
+  QSL {
+    @Override
+    public @Nullable Placement place(final Candidate mod, final Context context) {
+      if (!QSL_MOD_ID.equals(mod.modMenuParent())) {
+        return null;
+      }
+      // QSL mod may not exist (in case of qfapi qsl)
+      return Placement.under(QSL_MOD_ID, () -> ModDescription.create(
+        emptyList(),
+        QSL_MOD_ID,
+        "Quilt Standard Libraries",
+        "",
+        "quilt",
+        "A set of libraries to assist in making Quilt mods.",
+        List.of("QuiltMC: QSL Team"),
+        emptyList(),
+        emptyList(),
+        emptyMap(),
+        Environment.UNIVERSAL
+      ));
+    }
+  },
+  QUILTED_FABRIC_API {
+    @Override
+    public @Nullable Placement place(final Candidate mod, final Context context) {
+      if (mod.fabricApiModule()
+        && mod.modId().startsWith("quilted_") // not ideal, but works
+        && context.isPresent(QUILTED_FABRIC_API_MOD_ID)) {
+        return Placement.under(QUILTED_FABRIC_API_MOD_ID);
+      }
+      return null;
+    }
+  },
+  FABRIC_API {
+    @Override
+    public @Nullable Placement place(final Candidate mod, final Context context) {
+      if (!mod.fabricApiModule()) {
+        return null;
+      }
+      if (context.isPresent(FABRIC_API_MOD_ID)) {
+        return Placement.under(FABRIC_API_MOD_ID);
+      }
+      if (context.isPresent(LEGACY_FABRIC_API_MOD_ID)) {
+        return Placement.under(LEGACY_FABRIC_API_MOD_ID);
+      }
+      return null;
+    }
+  },
+  LOOM_GENERATED {
+    @Override
+    public @Nullable Placement place(final Candidate mod, final Context context) {
+      if (!mod.loomGenerated()) {
+        return null;
+      }
+      return Placement.under(LOOM_GENERATED_MOD_ID, () -> ModDescription.create(
+        emptyList(),
+        LOOM_GENERATED_MOD_ID,
+        "Loom Generated",
+        "",
+        "category",
+        "Parent mod to all Loom-generated library mods.",
+        emptyList(),
+        emptyList(),
+        emptyList(),
+        emptyMap(),
+        Environment.UNIVERSAL
+      ));
+    }
+  },
+  MOD_MENU_PARENT {
+    @Override
+    public @Nullable Placement place(final Candidate mod, final Context context) {
+      final String parent = mod.modMenuParent();
+      if (parent == null) {
+        return null;
+      }
+      return Placement.under(parent);
+    }
+  };
+
+  private static final String QSL_MOD_ID = "qsl";
+  private static final String LEGACY_FABRIC_API_MOD_ID = "fabric";
+  private static final String FABRIC_API_MOD_ID = "fabric-api";
+  private static final String QUILTED_FABRIC_API_MOD_ID = "quilted_fabric_api";
+  private static final String LOOM_GENERATED_MOD_ID = "loom-generated";
+  static final String FABRIC_API_MODULE_MARKER = "fabric-api:module-lifecycle";
+  static final String LOOM_GENERATED_MARKER = "fabric-loom:generated";
+}
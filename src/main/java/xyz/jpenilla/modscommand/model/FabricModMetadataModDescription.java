@@ -16,11 +16,13 @@
  */
 package xyz.jpenilla.modscommand.model;
 
-import io.leangen.geantyref.GenericTypeReflector;
-import io.leangen.geantyref.TypeToken;
-import java.util.Arrays;
+import com.google.common.collect.Interner;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import net.fabricmc.loader.api.metadata.ModEnvironment;
 import net.fabricmc.loader.api.metadata.ModMetadata;
 import net.fabricmc.loader.api.metadata.Person;
@@ -28,85 +30,110 @@ import org.jspecify.annotations.NullMarked;
 
 @NullMarked
 final class FabricModMetadataModDescription extends AbstractModDescription {
-  private final ModMetadata metadata;
+  private final String modId;
+  private final String name;
+  private final String version;
+  private final String type;
+  private final String description;
+  private final List<String> authors;
+  private final List<String> contributors;
+  private final List<String> licenses;
+  private final Map<String, String> contact;
+  private final Set<String> urlContacts;
+  private final Environment environment;
+  private final String[] searchKeys;
 
   FabricModMetadataModDescription(
     final ModMetadata metadata,
-    final ModDescription... children
+    final Interner<String> strings
   ) {
-    super(Arrays.asList(children));
-    this.metadata = metadata;
+    super(List.of());
+    this.putAttribute(ModMetadata.class, metadata);
+    this.modId = metadata.getId();
+    this.name = metadata.getName();
+    this.version = metadata.getVersion().getFriendlyString();
+    this.type = strings.intern(metadata.getType());
+    this.description = metadata.getDescription();
+    this.authors = internAll(strings, metadata.getAuthors().stream().map(Person::getName).toList());
+    this.contributors = internAll(strings, metadata.getContributors().stream().map(Person::getName).toList());
+    this.licenses = internAll(strings, metadata.getLicense());
+    final Map<String, String> contact = new LinkedHashMap<>();
+    metadata.getContact().asMap().forEach((key, value) -> contact.put(strings.intern(key), strings.intern(value)));
+    this.contact = Collections.unmodifiableMap(contact);
+    this.urlContacts = urlContacts(this.contact);
+    this.environment = fromFabric(metadata.getEnvironment());
+    this.searchKeys = internAll(strings, searchKeys(this.modId, this.name, this.authors));
   }
 
   @Override
   public String modId() {
-    return this.metadata.getId();
+    return this.modId;
   }
 
   @Override
   public String name() {
-    return this.metadata.getName();
+    return this.name;
   }
 
   @Override
   public String version() {
-    return this.metadata.getVersion().getFriendlyString();
+    return this.version;
   }
 
   @Override
   public String type() {
-    return this.metadata.getType();
+    return this.type;
   }
 
   @Override
   public String description() {
-    return this.metadata.getDescription();
+    return this.description;
   }
 
   @Override
   public Collection<String> authors() {
-    return this.metadata.getAuthors().stream()
-      .map(Person::getName)
-      .toList();
+    return this.authors;
   }
 
   @Override
   public Collection<String> contributors() {
-    return this.metadata.getContributors().stream()
-      .map(Person::getName)
-      .toList();
+    return this.contributors;
   }
 
   @Override
   public Collection<String> licenses() {
-    return this.metadata.getLicense();
+    return this.licenses;
   }
 
   @Override
   public Map<String, String> contact() {
-    return this.metadata.getContact().asMap();
+    return this.contact;
   }
 
   @Override
-  public Environment environment() {
-    return fromFabric(this.metadata.getEnvironment());
+  public Set<String> urlContacts() {
+    return this.urlContacts;
   }
 
   @Override
-  public boolean hasAttribute(final TypeToken<?> type) {
-    if (GenericTypeReflector.erase(type.getType()).equals(ModMetadata.class)) {
-      return true;
-    }
-    return super.hasAttribute(type);
+  public Environment environment() {
+    return this.environment;
   }
 
-  @SuppressWarnings("unchecked")
   @Override
-  public <A> A attribute(final TypeToken<A> type) {
-    if (GenericTypeReflector.erase(type.getType()).equals(ModMetadata.class)) {
-      return (A) this.metadata;
+  String[] searchKeys() {
+    return this.searchKeys;
+  }
+
+  private static List<String> internAll(final Interner<String> strings, final Collection<String> values) {
+    return values.stream().map(strings::intern).toList();
+  }
+
+  private static String[] internAll(final Interner<String> strings, final String[] values) {
+    for (int i = 0; i < values.length; i++) {
+      values[i] = strings.intern(values[i]);
     }
-    return super.attribute(type);
+    return values;
   }
 
   private static Environment fromFabric(final ModEnvironment modEnvironment) {
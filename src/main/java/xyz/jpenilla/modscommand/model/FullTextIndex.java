@@ -0,0 +1,131 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import org.jspecify.annotations.NullMarked;
+
+@NullMarked
+final class FullTextIndex {
+  private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final int ID_WEIGHT = 3;
+  private static final int NAME_WEIGHT = 2;
+  private static final int DESCRIPTION_WEIGHT = 1;
+  private static final float K1 = 1.2F;
+  private static final float B = 0.75F;
+  private static final float PREFIX_MATCH_WEIGHT = 0.5F;
+
+  private final String[] terms;
+  private final int[][] postings;
+  private final int[][] frequencies;
+  private final int[] lengths;
+  private final float averageLength;
+
+  FullTextIndex(final List<ModDescription> mods) {
+    final TreeMap<String, IntList[]> builders = new TreeMap<>();
+    this.lengths = new int[mods.size()];
+    long totalLength = 0;
+    for (int ordinal = 0; ordinal < mods.size(); ordinal++) {
+      final ModDescription mod = mods.get(ordinal);
+      final Map<String, Integer> counts = new HashMap<>();
+      count(counts, mod.modId(), ID_WEIGHT);
+      count(counts, mod.name(), NAME_WEIGHT);
+      count(counts, mod.description(), DESCRIPTION_WEIGHT);
+      for (final Map.Entry<String, Integer> entry : counts.entrySet()) {
+        final IntList[] builder = builders.computeIfAbsent(entry.getKey(), $ -> new IntList[]{new IntList(), new IntList()});
+        builder[0].add(ordinal);
+        builder[1].add(entry.getValue());
+        this.lengths[ordinal] += entry.getValue();
+      }
+      totalLength += this.lengths[ordinal];
+    }
+    this.averageLength = mods.isEmpty() ? 1 : Math.max(1, (float) totalLength / mods.size());
+
+    this.terms = builders.keySet().toArray(String[]::new);
+    this.postings = new int[this.terms.length][];
+    this.frequencies = new int[this.terms.length][];
+    int term = 0;
+    for (final IntList[] builder : builders.values()) {
+      this.postings[term] = builder[0].toArray();
+      this.frequencies[term] = builder[1].toArray();
+      term++;
+    }
+  }
+
+  Scores score(final String foldedQuery) {
+    final float[] scores = new float[this.lengths.length];
+    final int[] matched = new int[this.lengths.length];
+    int matchCount = 0;
+    for (final String token : tokens(foldedQuery).stream().distinct().toList()) {
+      // every indexed term starting with the token matches, so partially typed words still find something
+      final int from = lowerBound(this.terms, token);
+      for (int term = from; term < this.terms.length && this.terms[term].startsWith(token); term++) {
+        final float weight = this.terms[term].length() == token.length() ? 1 : PREFIX_MATCH_WEIGHT;
+        final int[] ordinals = this.postings[term];
+        final int[] termFrequencies = this.frequencies[term];
+        final float idf = (float) Math.log(1 + (this.lengths.length - ordinals.length + 0.5) / (ordinals.length + 0.5));
+        for (int i = 0; i < ordinals.length; i++) {
+          final int ordinal = ordinals[i];
+          final float tf = termFrequencies[i];
+          final float norm = K1 * (1 - B + B * this.lengths[ordinal] / this.averageLength);
+          if (scores[ordinal] == 0) {
+            matched[matchCount++] = ordinal;
+          }
+          scores[ordinal] += weight * idf * tf * (K1 + 1) / (tf + norm);
+        }
+      }
+    }
+    final int[] ordinals = Arrays.copyOf(matched, matchCount);
+    final float[] matchScores = new float[matchCount];
+    for (int i = 0; i < matchCount; i++) {
+      matchScores[i] = scores[ordinals[i]];
+    }
+    return new Scores(ordinals, matchScores);
+  }
+
+  private static void count(final Map<String, Integer> counts, final String text, final int weight) {
+    for (final String token : tokens(TrigramIndex.fold(text))) {
+      counts.merge(token, weight, Integer::sum);
+    }
+  }
+
+  private static List<String> tokens(final String folded) {
+    return Arrays.stream(TOKEN_SEPARATOR.split(folded)).filter(token -> !token.isEmpty()).toList();
+  }
+
+  private static int lowerBound(final String[] sorted, final String key) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (sorted[mid].compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  record Scores(int[] ordinals, float[] scores) {
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.Arrays;
+import org.jspecify.annotations.NullMarked;
+
+@NullMarked
+final class IntList {
+  private int[] values = new int[4];
+  private int size;
+
+  void add(final int value) {
+    if (this.size == this.values.length) {
+      this.values = Arrays.copyOf(this.values, this.size * 2);
+    }
+    this.values[this.size++] = value;
+  }
+
+  void addIfAbsent(final int value) {
+    // values are only ever added in ascending order, so checking the tail is enough
+    if (this.size == 0 || this.values[this.size - 1] != value) {
+      this.add(value);
+    }
+  }
+
+  int[] toArray() {
+    return Arrays.copyOf(this.values, this.size);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.fabricmc.loader.api.metadata.CustomValue;
+import net.fabricmc.loader.api.metadata.ModMetadata;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import static java.util.Comparator.comparing;
+
+@NullMarked
+final class ModArranger {
+  private final List<ArrangementRule> rules;
+
+  ModArranger(final List<ArrangementRule> rules) {
+    this.rules = List.copyOf(rules);
+  }
+
+  Map<String, ModDescription> arrange(final Collection<ModDescription> mods) {
+    // Classification and rule evaluation run on the common fork-join pool. Results are collected
+    // in mod id order and only assembled afterwards, so the tree doesn't depend on scheduling.
+    final List<Candidate> candidates = mods.parallelStream()
+      .sorted(comparing(ModDescription::modId))
+      .map(ModArranger::classify)
+      .toList();
+
+    final Map<String, ModDescription> descriptions = new LinkedHashMap<>();
+    for (final Candidate candidate : candidates) {
+      descriptions.put(candidate.modId(), candidate.description());
+    }
+    final ArrangementRule.Context context = descriptions::containsKey;
+
+    final List<ArrangementRule.@Nullable Placement> placements = candidates.parallelStream()
+      .map(candidate -> this.place(candidate, context))
+      .toList();
+
+    final Map<String, String> parents = new HashMap<>();
+    for (int i = 0; i < candidates.size(); i++) {
+      final Candidate candidate = candidates.get(i);
+      final ArrangementRule.Placement placement = placements.get(i);
+      if (placement == null) {
+        continue;
+      }
+      final String parentId = placement.parentId();
+      if (!descriptions.containsKey(parentId)) {
+        if (placement.syntheticParent() == null) {
+          continue;
+        }
+        final ModDescription syntheticParent = placement.syntheticParent().get();
+        if (!syntheticParent.modId().equals(parentId)) {
+          throw new IllegalStateException(String.format("Synthetic parent '%s' does not match expected id '%s'.", syntheticParent.modId(), parentId));
+        }
+        descriptions.put(parentId, syntheticParent);
+      }
+      parents.put(candidate.modId(), parentId);
+    }
+
+    final Map<String, ModDescription> roots = new HashMap<>(descriptions);
+    parents.forEach((childId, parentId) -> {
+      if (createsCycle(parents, childId)) {
+        return;
+      }
+      ((AbstractModDescription) descriptions.get(parentId)).addChild(descriptions.get(childId));
+      roots.remove(childId);
+    });
+    return roots;
+  }
+
+  private ArrangementRule.@Nullable Placement place(final Candidate candidate, final ArrangementRule.Context context) {
+    for (final ArrangementRule rule : this.rules) {
+      final ArrangementRule.Placement placement = rule.place(candidate, context);
+      if (placement == null || placement.parentId().equals(candidate.modId())) {
+        continue;
+      }
+      // a parent that isn't installed and can't be synthesized leaves the mod to the next rule
+      if (!context.isPresent(placement.parentId()) && placement.syntheticParent() == null) {
+        continue;
+      }
+      return placement;
+    }
+    return null;
+  }
+
+  private static boolean createsCycle(final Map<String, String> parents, final String childId) {
+    final Set<String> seen = new HashSet<>();
+    for (String id = parents.get(childId); id != null && seen.add(id); id = parents.get(id)) {
+      if (id.equals(childId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Candidate classify(final ModDescription mod) {
+    final ModMetadata metadata = mod.hasAttribute(ModMetadata.class) ? mod.attribute(ModMetadata.class) : null;
+    if (metadata == null) {
+      return new Candidate(mod, null, null, false, false);
+    }
+    return new Candidate(
+      mod,
+      metadata,
+      modMenuParent(metadata),
+      metadata.containsCustomValue(BuiltinArrangementRules.FABRIC_API_MODULE_MARKER),
+      metadata.containsCustomValue(BuiltinArrangementRules.LOOM_GENERATED_MARKER)
+    );
+  }
+
+  static @Nullable String modMenuParent(final ModMetadata meta) {
+    final CustomValue parent = modMenuParentValue(meta);
+    if (parent == null) {
+      return null;
+    } else if (parent.getType() == CustomValue.CvType.STRING) {
+      return parent.getAsString();
+    } else {
+      return parent.getAsObject().get("id").getAsString();
+    }
+  }
+
+  static @Nullable String modMenuParentName(final ModMetadata meta) {
+    final CustomValue parent = modMenuParentValue(meta);
+    if (parent == null || parent.getType() != CustomValue.CvType.OBJECT || !parent.getAsObject().containsKey("name")) {
+      return null;
+    }
+    return parent.getAsObject().get("name").getAsString();
+  }
+
+  private static @Nullable CustomValue modMenuParentValue(final ModMetadata meta) {
+    if (!meta.containsCustomValue("modmenu")) {
+      return null;
+    }
+    final CustomValue modMenu = meta.getCustomValue("modmenu");
+    if (modMenu.getType() != CustomValue.CvType.OBJECT || !modMenu.getAsObject().containsKey("parent")) {
+      return null;
+    }
+    return modMenu.getAsObject().get("parent");
+  }
+
+  private record Candidate(
+    ModDescription description,
+    @Nullable ModMetadata metadata,
+    @Nullable String modMenuParent,
+    boolean fabricApiModule,
+    boolean loomGenerated
+  ) implements ArrangementRule.Candidate {
+    @Override
+    public boolean hasCustomValue(final String key) {
+      return this.metadata != null && this.metadata.containsCustomValue(key);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import io.leangen.geantyref.TypeToken;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 import net.fabricmc.loader.api.metadata.ModMetadata;
 import org.jspecify.annotations.NullMarked;
@@ -49,6 +50,11 @@ public interface ModDescription {
 
   Map<String, String> contact();
 
+  // keys of contact() whose values are web URLs rather than, say, an email address or an IRC channel
+  default Set<String> urlContacts() {
+    return AbstractModDescription.urlContacts(this.contact());
+  }
+
   Environment environment();
 
   default boolean hasAttribute(final TypeToken<?> type) {
@@ -87,8 +93,12 @@ public interface ModDescription {
     return Stream.concat(Stream.of(this), this.childrenStream());
   }
 
+  default int descendantCount() {
+    return (int) this.childrenStream().count();
+  }
+
   static ModDescription fromFabric(final ModMetadata fabric) {
-    return new FabricModMetadataModDescription(fabric);
+    return new FabricModMetadataModDescription(fabric, string -> string);
   }
 
   static ModDescription create(
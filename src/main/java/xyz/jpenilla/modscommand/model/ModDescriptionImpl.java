@@ -17,8 +17,11 @@
 package xyz.jpenilla.modscommand.model;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.jspecify.annotations.NullMarked;
 
 @NullMarked
@@ -32,7 +35,9 @@ final class ModDescriptionImpl extends AbstractModDescription {
   private final Collection<String> contributors;
   private final Collection<String> licenses;
   private final Map<String, String> contact;
+  private final Set<String> urlContacts;
   private final Environment environment;
+  private final String[] searchKeys;
 
   ModDescriptionImpl(
     final List<ModDescription> children,
@@ -53,11 +58,13 @@ final class ModDescriptionImpl extends AbstractModDescription {
     this.version = version;
     this.type = type;
     this.description = description;
-    this.authors = authors;
-    this.contributors = contributors;
-    this.licenses = licenses;
-    this.contact = contact;
+    this.authors = List.copyOf(authors);
+    this.contributors = List.copyOf(contributors);
+    this.licenses = List.copyOf(licenses);
+    this.contact = Collections.unmodifiableMap(new LinkedHashMap<>(contact));
+    this.urlContacts = urlContacts(this.contact);
     this.environment = environment;
+    this.searchKeys = searchKeys(this.modId, this.name, this.authors);
   }
 
   @Override
@@ -105,8 +112,18 @@ final class ModDescriptionImpl extends AbstractModDescription {
     return this.contact;
   }
 
+  @Override
+  public Set<String> urlContacts() {
+    return this.urlContacts;
+  }
+
   @Override
   public Environment environment() {
     return this.environment;
   }
+
+  @Override
+  String[] searchKeys() {
+    return this.searchKeys;
+  }
 }
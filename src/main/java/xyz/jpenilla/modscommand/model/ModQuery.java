@@ -0,0 +1,298 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// Query syntax:
+//   fabric api               consecutive bare words form one phrase, matched against id, name and authors
+//   author:jmp env:client    field filters, adjacent terms are ANDed
+//   type:builtin OR has:children
+//   -license:MIT, !id:fabric, NOT (a OR b)
+//   name:"quoted value"
+@NullMarked
+final class ModQuery {
+  private final Node root;
+
+  private ModQuery(final Node root) {
+    this.root = root;
+  }
+
+  static ModQuery parse(final String query) {
+    final Parser parser = new Parser(tokenize(query));
+    if (parser.tokens.isEmpty()) {
+      return new ModQuery(new Text(""));
+    }
+    final Node root = parser.parseOr();
+    if (parser.position < parser.tokens.size()) {
+      throw new InvalidQueryException(String.format("Unexpected '%s' in query.", parser.tokens.get(parser.position).text()));
+    }
+    return new ModQuery(root);
+  }
+
+  BitSet evaluate(final Mods mods) {
+    return this.root.evaluate(mods);
+  }
+
+  // a single phrase with no fields, operators or grouping
+  boolean isPlainText() {
+    return this.root instanceof Text;
+  }
+
+  enum Field {
+    ID("id"),
+    NAME("name"),
+    AUTHOR("author"),
+    ENVIRONMENT("env", "environment"),
+    TYPE("type"),
+    LICENSE("license"),
+    HAS("has");
+
+    private final List<String> names;
+
+    Field(final String... names) {
+      this.names = Arrays.asList(names);
+    }
+
+    static @Nullable Field byName(final String name) {
+      final String folded = TrigramIndex.fold(name);
+      for (final Field field : values()) {
+        if (field.names.contains(folded)) {
+          return field;
+        }
+      }
+      return null;
+    }
+  }
+
+  private sealed interface Node permits Text, FieldMatch, Not, And, Or {
+    BitSet evaluate(Mods mods);
+  }
+
+  private record Text(String foldedText) implements Node {
+    @Override
+    public BitSet evaluate(final Mods mods) {
+      return mods.matchingText(this.foldedText);
+    }
+  }
+
+  private record FieldMatch(Field field, String foldedValue) implements Node {
+    @Override
+    public BitSet evaluate(final Mods mods) {
+      return mods.matchingField(this.field, this.foldedValue);
+    }
+  }
+
+  private record Not(Node node) implements Node {
+    @Override
+    public BitSet evaluate(final Mods mods) {
+      final BitSet result = this.node.evaluate(mods);
+      result.flip(0, mods.totalModCount());
+      return result;
+    }
+  }
+
+  private record And(List<Node> nodes) implements Node {
+    @Override
+    public BitSet evaluate(final Mods mods) {
+      final BitSet result = this.nodes.get(0).evaluate(mods);
+      for (int i = 1; i < this.nodes.size() && !result.isEmpty(); i++) {
+        result.and(this.nodes.get(i).evaluate(mods));
+      }
+      return result;
+    }
+  }
+
+  private record Or(List<Node> nodes) implements Node {
+    @Override
+    public BitSet evaluate(final Mods mods) {
+      final BitSet result = this.nodes.get(0).evaluate(mods);
+      for (int i = 1; i < this.nodes.size(); i++) {
+        result.or(this.nodes.get(i).evaluate(mods));
+      }
+      return result;
+    }
+  }
+
+  private enum TokenType {
+    OPEN,
+    CLOSE,
+    AND,
+    OR,
+    NOT,
+    WORD,
+    QUOTED,
+    FIELD
+  }
+
+  private record Token(TokenType type, String text, @Nullable Field field) {
+    Token(final TokenType type, final String text) {
+      this(type, text, null);
+    }
+  }
+
+  private static List<Token> tokenize(final String query) {
+    final List<Token> tokens = new ArrayList<>();
+    int i = 0;
+    while (i < query.length()) {
+      final char c = query.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '(') {
+        tokens.add(new Token(TokenType.OPEN, "("));
+        i++;
+      } else if (c == ')') {
+        tokens.add(new Token(TokenType.CLOSE, ")"));
+        i++;
+      } else if ((c == '-' || c == '!') && i + 1 < query.length() && !Character.isWhitespace(query.charAt(i + 1))) {
+        tokens.add(new Token(TokenType.NOT, String.valueOf(c)));
+        i++;
+      } else if (c == '"') {
+        final int end = closingQuote(query, i);
+        tokens.add(new Token(TokenType.QUOTED, query.substring(i + 1, end)));
+        i = end + 1;
+      } else {
+        final int start = i;
+        while (i < query.length() && !isWordBoundary(query.charAt(i))) {
+          i++;
+        }
+        final String word = query.substring(start, i);
+        final int colon = word.indexOf(':');
+        final Field field = colon > 0 ? Field.byName(word.substring(0, colon)) : null;
+        if (field != null) {
+          String value = word.substring(colon + 1);
+          if (value.isEmpty() && i < query.length() && query.charAt(i) == '"') {
+            final int end = closingQuote(query, i);
+            value = query.substring(i + 1, end);
+            i = end + 1;
+          }
+          if (value.isEmpty()) {
+            throw new InvalidQueryException(String.format("Missing value for '%s' in query.", word));
+          }
+          tokens.add(new Token(TokenType.FIELD, value, field));
+        } else {
+          tokens.add(switch (word) {
+            case "AND", "&&" -> new Token(TokenType.AND, word);
+            case "OR", "||" -> new Token(TokenType.OR, word);
+            case "NOT" -> new Token(TokenType.NOT, word);
+            default -> new Token(TokenType.WORD, word);
+          });
+        }
+      }
+    }
+    return tokens;
+  }
+
+  private static int closingQuote(final String query, final int openQuote) {
+    final int end = query.indexOf('"', openQuote + 1);
+    if (end < 0) {
+      throw new InvalidQueryException("Unclosed quote in query.");
+    }
+    return end;
+  }
+
+  private static boolean isWordBoundary(final char c) {
+    return Character.isWhitespace(c) || c == '(' || c == ')' || c == '"';
+  }
+
+  private static final class Parser {
+    private final List<Token> tokens;
+    private int position = 0;
+
+    Parser(final List<Token> tokens) {
+      this.tokens = tokens;
+    }
+
+    private @Nullable TokenType peek() {
+      return this.position < this.tokens.size() ? this.tokens.get(this.position).type() : null;
+    }
+
+    private Token next() {
+      if (this.position >= this.tokens.size()) {
+        throw new InvalidQueryException("Query ended unexpectedly.");
+      }
+      return this.tokens.get(this.position++);
+    }
+
+    Node parseOr() {
+      final List<Node> nodes = new ArrayList<>();
+      nodes.add(this.parseAnd());
+      while (this.peek() == TokenType.OR) {
+        this.next();
+        nodes.add(this.parseAnd());
+      }
+      return nodes.size() == 1 ? nodes.get(0) : new Or(nodes);
+    }
+
+    private Node parseAnd() {
+      final List<Node> nodes = new ArrayList<>();
+      nodes.add(this.parseUnary());
+      while (this.peek() != null && this.peek() != TokenType.OR && this.peek() != TokenType.CLOSE) {
+        if (this.peek() == TokenType.AND) {
+          this.next();
+        }
+        nodes.add(this.parseUnary());
+      }
+      return nodes.size() == 1 ? nodes.get(0) : new And(nodes);
+    }
+
+    private Node parseUnary() {
+      if (this.peek() == TokenType.NOT) {
+        this.next();
+        return new Not(this.parseUnary());
+      }
+      return this.parsePrimary();
+    }
+
+    private Node parsePrimary() {
+      final Token token = this.next();
+      return switch (token.type()) {
+        case OPEN -> {
+          final Node node = this.parseOr();
+          if (this.peek() != TokenType.CLOSE) {
+            throw new InvalidQueryException("Missing ')' in query.");
+          }
+          this.next();
+          yield node;
+        }
+        case FIELD -> new FieldMatch(requireField(token), TrigramIndex.fold(token.text()));
+        case QUOTED -> new Text(TrigramIndex.fold(token.text()));
+        case WORD -> {
+          final StringBuilder phrase = new StringBuilder(token.text());
+          while (this.peek() == TokenType.WORD) {
+            phrase.append(' ').append(this.next().text());
+          }
+          yield new Text(TrigramIndex.fold(phrase.toString()));
+        }
+        default -> throw new InvalidQueryException(String.format("Unexpected '%s' in query.", token.text()));
+      };
+    }
+
+    private static Field requireField(final Token token) {
+      final Field field = token.field();
+      if (field == null) {
+        throw new IllegalStateException("Field token without a field");
+      }
+      return field;
+    }
+  }
+}
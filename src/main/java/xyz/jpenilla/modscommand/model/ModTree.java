@@ -0,0 +1,143 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.jspecify.annotations.NullMarked;
+
+import static java.util.Comparator.comparing;
+
+// Nodes are numbered in pre-order (Euler tour), so the subtree of node n is the range [n, n + subtreeSize(n)).
+// Ordinals are a second numbering in mod id order.
+@NullMarked
+final class ModTree {
+  private final ModDescription[] nodes;
+  private final int[] parents;
+  private final int[] subtreeSizes;
+  private final int[] ordinals;
+  private final List<ModDescription> modsByOrdinal;
+
+  ModTree(final Collection<ModDescription> roots) {
+    final List<ModDescription> nodes = new ArrayList<>();
+    final List<Integer> parents = new ArrayList<>();
+    for (final ModDescription root : roots) {
+      visit(root, -1, nodes, parents);
+    }
+    this.nodes = nodes.toArray(ModDescription[]::new);
+    this.parents = parents.stream().mapToInt(Integer::intValue).toArray();
+
+    this.subtreeSizes = new int[this.nodes.length];
+    for (int node = this.nodes.length - 1; node >= 0; node--) {
+      this.subtreeSizes[node]++;
+      if (this.parents[node] >= 0) {
+        this.subtreeSizes[this.parents[node]] += this.subtreeSizes[node];
+      }
+    }
+
+    final Integer[] nodesById = IntStream.range(0, this.nodes.length).boxed().toArray(Integer[]::new);
+    Arrays.sort(nodesById, comparing(node -> this.nodes[node].modId()));
+    final ModDescription[] byOrdinal = new ModDescription[this.nodes.length];
+    this.ordinals = new int[this.nodes.length];
+    for (int ordinal = 0; ordinal < nodesById.length; ordinal++) {
+      byOrdinal[ordinal] = this.nodes[nodesById[ordinal]];
+      this.ordinals[nodesById[ordinal]] = ordinal;
+    }
+    this.modsByOrdinal = List.of(byOrdinal);
+
+    for (int node = 0; node < this.nodes.length; node++) {
+      ((AbstractModDescription) this.nodes[node]).attach(this, node);
+    }
+  }
+
+  private static void visit(
+    final ModDescription mod,
+    final int parent,
+    final List<ModDescription> nodes,
+    final List<Integer> parents
+  ) {
+    if (!(mod instanceof final AbstractModDescription abstractMod)) {
+      throw new IllegalArgumentException(String.format("Cannot add non-AbstractModDescription to the tree. Attempted to add %s '%s'.", mod.getClass().getName(), mod));
+    }
+    final int node = nodes.size();
+    nodes.add(mod);
+    parents.add(parent);
+    for (final ModDescription child : abstractMod.freezeChildren()) {
+      visit(child, node, nodes, parents);
+    }
+  }
+
+  private static int node(final ModDescription mod) {
+    return ((AbstractModDescription) mod).node();
+  }
+
+  int size() {
+    return this.nodes.length;
+  }
+
+  List<ModDescription> modsByOrdinal() {
+    return this.modsByOrdinal;
+  }
+
+  int ordinal(final ModDescription mod) {
+    return this.ordinals[node(mod)];
+  }
+
+  int descendantCount(final int node) {
+    return this.subtreeSizes[node] - 1;
+  }
+
+  Stream<ModDescription> selfAndDescendants(final int node) {
+    return Arrays.stream(this.nodes, node, node + this.subtreeSizes[node]);
+  }
+
+  Stream<ModDescription> descendants(final int node) {
+    return Arrays.stream(this.nodes, node + 1, node + this.subtreeSizes[node]);
+  }
+
+  Stream<ModDescription> selfAndAncestors(final int node) {
+    return IntStream.iterate(node, n -> n >= 0, n -> this.parents[n]).mapToObj(n -> this.nodes[n]);
+  }
+
+  Stream<ModDescription> ancestors(final int node) {
+    return this.selfAndAncestors(this.parents[node]);
+  }
+
+  BitSet subtreeOrdinals(final int ordinal) {
+    final int node = node(this.modsByOrdinal.get(ordinal));
+    final BitSet ordinals = new BitSet(this.nodes.length);
+    final int end = node + this.subtreeSizes[node];
+    for (int n = node; n < end; n++) {
+      ordinals.set(this.ordinals[n]);
+    }
+    return ordinals;
+  }
+
+  BitSet ancestorOrdinals(final int ordinal) {
+    final int node = node(this.modsByOrdinal.get(ordinal));
+    final BitSet ordinals = new BitSet(this.nodes.length);
+    for (int n = this.parents[node]; n >= 0; n = this.parents[n]) {
+      ordinals.set(this.ordinals[n]);
+    }
+    return ordinals;
+  }
+}
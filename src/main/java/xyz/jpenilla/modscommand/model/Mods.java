@@ -17,52 +17,156 @@
 package xyz.jpenilla.modscommand.model;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Maps;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.loader.api.ModContainer;
-import net.fabricmc.loader.api.metadata.CustomValue;
 import net.fabricmc.loader.api.metadata.ModMetadata;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import xyz.jpenilla.modscommand.ModsCommandModInitializer;
 
-import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
 import static java.util.Comparator.comparing;
 import static java.util.function.UnaryOperator.identity;
-import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toUnmodifiableMap;
-import static java.util.stream.Collectors.toUnmodifiableSet;
 
 @NullMarked
 public final class Mods {
-  private static final String QSL_MOD_ID = "qsl";
-  private static final String LEGACY_FABRIC_API_MOD_ID = "fabric";
-  private static final String FABRIC_API_MOD_ID = "fabric-api";
-  private static final String QUILTED_FABRIC_API_MOD_ID = "quilted_fabric_api";
-  private static final String FABRIC_API_MODULE_MARKER = "fabric-api:module-lifecycle";
-  private static final String LOOM_GENERATED_MARKER = "fabric-loom:generated";
-
-  private final Set<ModDescription> mods;
+  private static final String CLIENT_SIDED_KEYWORDS = "clientsided client-sided client sided";
+  private static final String SERVER_SIDED_KEYWORDS = "serversided server-sided server sided";
+  private static final int MAX_FUZZY_DISTANCE = 3;
+  private static final int SEARCH_CACHE_SIZE = 64;
+  private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(2);
+  private static final AtomicInteger VERSIONS = new AtomicInteger();
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static volatile @Nullable CompletableFuture<Mods> instance;
+
+  private final List<ModDescription> mods;
+  private final ModTree tree;
   private final Map<String, ModDescription> modsById;
+  private final Map<String, ModDescription> modsByAlias;
   private final Map<String, ModDescription> rootMods;
+  private final TrigramIndex searchIndex;
+  private final FullTextIndex fullTextIndex;
+  private final @Nullable BkTree fuzzyIndex;
+  private final Map<Environment, BitSet> modsByEnvironment;
+  private final ValueIndex modsByType;
+  private final ValueIndex modsByLicense;
+  private final Map<String, BitSet> modsHaving;
+  private final BitSet[] ancestors;
+  private final BitSet[] subtrees;
+  private final int version = VERSIONS.incrementAndGet();
+  private final Map<SearchKey, List<ModDescription>> searchCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75F, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<SearchKey, List<ModDescription>> eldest) {
+      return this.size() > SEARCH_CACHE_SIZE;
+    }
+  });
 
   private Mods() {
-    this.rootMods = loadModDescriptions();
-    this.mods = this.rootMods.values().stream().flatMap(ModDescription::selfAndChildren).collect(toUnmodifiableSet());
+    final FabricLoader loader = FabricLoader.getInstance();
+    final Set<String> hiddenModIds = ModsCommandModInitializer.instance().config().hiddenModIds();
+    final List<ArrangementRule> rules = new ArrayList<>();
+    rules.addAll(loader.getEntrypoints(ArrangementRule.ENTRYPOINT, ArrangementRule.class));
+    rules.addAll(List.of(BuiltinArrangementRules.values()));
+    final List<AttributeProvider> attributeProviders = loader.getEntrypoints(AttributeProvider.ENTRYPOINT, AttributeProvider.class);
+
+    // Fabric API, QSL and Loom-generated modules repeat the same authors, licenses, types and contacts
+    final Interner<String> strings = Interners.newStrongInterner();
+    final List<ModDescription> descriptions = loader.getAllMods().parallelStream()
+      .map(ModContainer::getMetadata)
+      .<ModDescription>map(metadata -> new FabricModMetadataModDescription(metadata, strings))
+      .filter(mod -> !hiddenModIds.contains(mod.modId()))
+      .toList();
+    if (!attributeProviders.isEmpty()) {
+      descriptions.parallelStream().forEach(mod -> {
+        for (final AttributeProvider provider : attributeProviders) {
+          provider.provide(mod, ((AbstractModDescription) mod)::putAttribute);
+        }
+      });
+    }
+
+    this.rootMods = ImmutableMap.<String, ModDescription>builder()
+      .orderEntriesByValue(comparing(ModDescription::modId))
+      .putAll(new ModArranger(rules).arrange(descriptions))
+      .build();
+
+    final ModTree tree = new ModTree(this.rootMods.values());
+    this.tree = tree;
+    this.mods = tree.modsByOrdinal();
     this.modsById = this.mods.stream().collect(toUnmodifiableMap(ModDescription::modId, identity()));
+    this.modsByAlias = this.aliases();
+    this.searchIndex = new TrigramIndex(this.mods.stream().map(mod -> ((AbstractModDescription) mod).searchKeys()).toList());
+    this.fullTextIndex = new FullTextIndex(this.mods);
+    final Map<String, IntList> fuzzyKeys = new HashMap<>();
+    for (int ordinal = 0; ordinal < this.mods.size(); ordinal++) {
+      final ModDescription mod = this.mods.get(ordinal);
+      fuzzyKeys.computeIfAbsent(TrigramIndex.fold(mod.modId()), $ -> new IntList()).addIfAbsent(ordinal);
+      fuzzyKeys.computeIfAbsent(TrigramIndex.fold(mod.name()), $ -> new IntList()).addIfAbsent(ordinal);
+    }
+    this.fuzzyIndex = fuzzyKeys.isEmpty() ? null : new BkTree(Maps.transformValues(fuzzyKeys, IntList::toArray));
+
+    this.modsByEnvironment = new EnumMap<>(Environment.class);
+    for (final Environment environment : Environment.values()) {
+      this.modsByEnvironment.put(environment, new BitSet(this.mods.size()));
+    }
+    for (int ordinal = 0; ordinal < this.mods.size(); ordinal++) {
+      this.modsByEnvironment.get(this.mods.get(ordinal).environment()).set(ordinal);
+    }
+    this.modsByType = new ValueIndex(this.mods.stream().map(mod -> List.of(mod.type())).toList(), strings);
+    this.modsByLicense = new ValueIndex(this.mods.stream().map(ModDescription::licenses).toList(), strings);
+    this.modsHaving = Map.of(
+      "children", this.modsMatching(mod -> !mod.children().isEmpty()),
+      "parent", this.modsMatching(mod -> mod.parent() != null),
+      "authors", this.modsMatching(mod -> !mod.authors().isEmpty()),
+      "contributors", this.modsMatching(mod -> !mod.contributors().isEmpty()),
+      "license", this.modsMatching(mod -> !mod.licenses().isEmpty()),
+      "contact", this.modsMatching(mod -> !mod.contact().isEmpty()),
+      "description", this.modsMatching(mod -> !mod.description().isEmpty()),
+      "version", this.modsMatching(mod -> !mod.version().isEmpty())
+    );
+    this.ancestors = IntStream.range(0, tree.size()).parallel().mapToObj(tree::ancestorOrdinals).toArray(BitSet[]::new);
+    this.subtrees = IntStream.range(0, tree.size()).parallel().mapToObj(tree::subtreeOrdinals).toArray(BitSet[]::new);
   }
 
   public @Nullable ModDescription findMod(final String modId) {
     return this.modsById.get(modId);
   }
 
+  public @Nullable ModDescription resolveMod(final String input) {
+    final ModDescription mod = this.modsById.get(input);
+    if (mod != null) {
+      return mod;
+    }
+    return this.modsByAlias.get(aliasKey(input));
+  }
+
+  // not cached, mistyped mod arguments are re-parsed on every tab-complete and would push real searches out of the cache
+  public List<ModDescription> closestMods(final String input, final int limit) {
+    return this.fuzzyMatches(TrigramIndex.fold(normalize(input))).stream().limit(limit).toList();
+  }
+
   public int totalModCount() {
     return this.mods.size();
   }
@@ -79,171 +183,211 @@ public final class Mods {
     return this.rootMods.values();
   }
 
-  public static Mods mods() {
-    return Holder.INSTANCE;
+  // Results are immutable, so paging through a query reuses the cached list instead of searching again.
+  // The cache lives and dies with this snapshot.
+  public List<ModDescription> search(final String query) {
+    return this.searchCache.computeIfAbsent(new SearchKey(SearchMode.FILTER, normalize(query)), key -> {
+      final BitSet matches = ModQuery.parse(key.query()).evaluate(this);
+      final BitSet expanded = new BitSet(this.mods.size());
+      for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+        expanded.or(this.ancestors[ordinal]);
+        expanded.or(this.subtrees[ordinal]);
+      }
+      return new OrdinalView(this.mods, expanded);
+    });
   }
 
-  private static Map<String, ModDescription> loadModDescriptions() {
-    final FabricLoader loader = FabricLoader.getInstance();
+  public boolean isPlainTextQuery(final String query) {
+    return ModQuery.parse(normalize(query)).isPlainText();
+  }
 
-    final Set<String> hiddenModIds = ModsCommandModInitializer.instance().config().hiddenModIds();
+  public List<ModDescription> rankedSearch(final String query) {
+    return this.searchCache.computeIfAbsent(
+      new SearchKey(SearchMode.RANKED, TrigramIndex.fold(normalize(query))),
+      key -> new RankedResults(this.mods, this.fullTextIndex.score(key.query()))
+    );
+  }
 
-    final Map<String, ModDescription> descriptions = loader.getAllMods().stream()
-      .map(ModContainer::getMetadata)
-      .map(ModDescription::fromFabric)
-      .filter(mod -> !hiddenModIds.contains(mod.modId()))
-      .collect(toMap(ModDescription::modId, identity()));
+  public List<ModDescription> fuzzySearch(final String query) {
+    final String folded = TrigramIndex.fold(normalize(query));
+    if (this.fuzzyIndex == null || folded.isEmpty()) {
+      return List.of();
+    }
+    return this.searchCache.computeIfAbsent(new SearchKey(SearchMode.FUZZY, folded), key -> this.fuzzyMatches(folded));
+  }
 
-    arrangeQSLChildren(descriptions);
-    arrangeQFapiChildren(descriptions);
-    arrangeFapiChildren(descriptions);
-    arrangeLoomGenerated(descriptions);
-    arrangeChildModsUsingModMenuMetadata(descriptions);
+  private List<ModDescription> fuzzyMatches(final String folded) {
+    final BkTree fuzzyIndex = this.fuzzyIndex;
+    if (fuzzyIndex == null || folded.isEmpty()) {
+      return List.of();
+    }
+    // short queries only tolerate a single typo, otherwise nearly everything would match
+    final int maxDistance = Math.max(1, Math.min(MAX_FUZZY_DISTANCE, folded.length() / 3));
+    return fuzzyIndex.search(folded, maxDistance).entrySet().stream()
+      .sorted(Map.Entry.comparingByValue())
+      .map(match -> this.mods.get(match.getKey()))
+      .toList();
+  }
 
-    return ImmutableMap.<String, ModDescription>builder()
-      .orderEntriesByValue(comparing(ModDescription::modId))
-      .putAll(descriptions)
-      .build();
+  // dense index of a mod of this snapshot, in mod id order
+  public int ordinal(final ModDescription mod) {
+    return this.tree.ordinal(mod);
   }
 
-  private static void arrangeChildModsUsingModMenuMetadata(final Map<String, ModDescription> descriptions) {
-    final Map<String, List<ModDescription>> byParent = new HashMap<>();
-    descriptions.values().forEach(modDescription -> {
-      final String parent = parentUsingModMenuMetadata(modDescription);
-      if (parent == null) {
-        return;
-      }
-      byParent.computeIfAbsent(parent, $ -> new ArrayList<>()).add(modDescription);
-    });
-    byParent.forEach((parentId, children) -> {
-      final ModDescription parent = descriptions.get(parentId);
-      if (parent == null) {
-        return;
-      }
-      for (final ModDescription child : children) {
-        descriptions.remove(child.modId());
-        ((AbstractModDescription) parent).addChild(child);
+  public int version() {
+    return this.version;
+  }
+
+  private static String normalize(final String query) {
+    return WHITESPACE.matcher(query.trim()).replaceAll(" ");
+  }
+
+  // mod arguments are a single word, so names like 'Fabric API' are matched as 'fabricapi'
+  private static String aliasKey(final String value) {
+    return TrigramIndex.fold(WHITESPACE.matcher(value).replaceAll(""));
+  }
+
+  BitSet matchingText(final String foldedText) {
+    final BitSet matches = ordinals(this.searchIndex.search(foldedText));
+    if (CLIENT_SIDED_KEYWORDS.contains(foldedText)) {
+      matches.or(this.modsByEnvironment.get(Environment.CLIENT));
+    }
+    if (SERVER_SIDED_KEYWORDS.contains(foldedText)) {
+      matches.or(this.modsByEnvironment.get(Environment.SERVER));
+    }
+    return matches;
+  }
+
+  BitSet matchingField(final ModQuery.Field field, final String foldedValue) {
+    return switch (field) {
+      case ID -> ordinals(this.searchIndex.search(foldedValue, AbstractModDescription.ID_KEY, AbstractModDescription.NAME_KEY));
+      case NAME -> ordinals(this.searchIndex.search(foldedValue, AbstractModDescription.NAME_KEY, AbstractModDescription.FIRST_AUTHOR_KEY));
+      case AUTHOR -> ordinals(this.searchIndex.search(foldedValue, AbstractModDescription.FIRST_AUTHOR_KEY, Integer.MAX_VALUE));
+      case ENVIRONMENT -> (BitSet) this.modsByEnvironment.get(environment(foldedValue)).clone();
+      case TYPE -> this.modsByType.matching(foldedValue);
+      case LICENSE -> this.modsByLicense.matching(foldedValue);
+      case HAS -> {
+        final BitSet having = this.modsHaving.get(foldedValue);
+        if (having == null) {
+          throw new InvalidQueryException(String.format("Unknown value 'has:%s' in query, expected one of %s.", foldedValue, this.modsHaving.keySet().stream().sorted().toList()));
+        }
+        yield (BitSet) having.clone();
       }
-    });
+    };
   }
 
-  private static void arrangeQSLChildren(final Map<String, ModDescription> descriptions) {
-    final List<ModDescription> qslModules = findChildrenUsingModMenuMetadata(QSL_MOD_ID, descriptions);
-    if (qslModules.isEmpty()) {
-      return;
-    }
-    // QSL mod may not exist (in case of qfapi qsl)
-    final ModDescription qsl = descriptions.computeIfAbsent(QSL_MOD_ID, id -> ModDescription.create(
-      qslModules,
-      id,
-      "Quilt Standard Libraries",
-      "",
-      "quilt",
-      "A set of libraries to assist in making Quilt mods.",
-      List.of("QuiltMC: QSL Team"),
-      emptyList(),
-      emptyList(),
-      emptyMap(),
-      Environment.UNIVERSAL
-    ));
-    qslModules.forEach(module -> {
-      descriptions.remove(module.modId());
-      if (!qsl.children().contains(module)) {
-        ((AbstractModDescription) qsl).addChild(module);
+  private static Environment environment(final String foldedValue) {
+    for (final Environment environment : Environment.values()) {
+      if (TrigramIndex.fold(environment.name()).equals(foldedValue)) {
+        return environment;
       }
-    });
+    }
+    throw new InvalidQueryException(String.format("Unknown environment '%s' in query, expected client, server or universal.", foldedValue));
   }
 
-  private static void arrangeQFapiChildren(final Map<String, ModDescription> descriptions) {
-    final ModDescription qfapi = descriptions.get(QUILTED_FABRIC_API_MOD_ID);
-    if (qfapi != null) {
-      final List<ModDescription> qfapiModules = descriptions.values().stream()
-        .filter(it -> {
-          return it.hasAttribute(ModMetadata.class)
-            && it.attribute(ModMetadata.class).containsCustomValue(FABRIC_API_MODULE_MARKER)
-            && it.modId().startsWith("quilted_"); // not ideal, but works
-        })
-        .toList();
-      qfapiModules.forEach(module -> {
-        descriptions.remove(module.modId());
-        ((AbstractModDescription) qfapi).addChild(module);
-      });
+  private static BitSet ordinals(final int[] ordinals) {
+    final BitSet bits = new BitSet();
+    for (final int ordinal : ordinals) {
+      bits.set(ordinal);
     }
+    return bits;
   }
 
-  private static void arrangeFapiChildren(final Map<String, ModDescription> descriptions) {
-    final ModDescription fapi = fabricApi(descriptions);
-    if (fapi == null) {
-      return;
+  // earlier passes win on collisions: ids before display names before ModMenu parent names
+  private Map<String, ModDescription> aliases() {
+    final Map<String, ModDescription> aliases = new HashMap<>();
+    for (final ModDescription mod : this.mods) {
+      aliases.putIfAbsent(aliasKey(mod.modId()), mod);
     }
-    final List<ModDescription> fapiModules = descriptions.values().stream()
-      .filter(it -> it.hasAttribute(ModMetadata.class) && it.attribute(ModMetadata.class).containsCustomValue(FABRIC_API_MODULE_MARKER))
-      .toList();
-    fapiModules.forEach(module -> {
-      descriptions.remove(module.modId());
-      ((AbstractModDescription) fapi).addChild(module);
-    });
+    for (final ModDescription mod : this.mods) {
+      aliases.putIfAbsent(aliasKey(mod.name()), mod);
+    }
+    for (final ModDescription mod : this.mods) {
+      if (!mod.hasAttribute(ModMetadata.class)) {
+        continue;
+      }
+      final ModMetadata metadata = mod.attribute(ModMetadata.class);
+      final String parentId = ModArranger.modMenuParent(metadata);
+      final String parentName = ModArranger.modMenuParentName(metadata);
+      final ModDescription parent = parentId == null ? null : this.modsById.get(parentId);
+      if (parentName != null && parent != null) {
+        aliases.putIfAbsent(aliasKey(parentName), parent);
+      }
+    }
+    return Map.copyOf(aliases);
   }
 
-  private static @Nullable ModDescription fabricApi(final Map<String, ModDescription> descriptions) {
-    ModDescription fapi = descriptions.get(FABRIC_API_MOD_ID);
-    if (fapi == null) {
-      fapi = descriptions.get(LEGACY_FABRIC_API_MOD_ID);
+  private BitSet modsMatching(final Predicate<ModDescription> predicate) {
+    final BitSet matching = new BitSet(this.mods.size());
+    for (int ordinal = 0; ordinal < this.mods.size(); ordinal++) {
+      if (predicate.test(this.mods.get(ordinal))) {
+        matching.set(ordinal);
+      }
     }
-    return fapi;
+    return matching;
   }
 
-  private static void arrangeLoomGenerated(final Map<String, ModDescription> descriptions) {
-    final List<ModDescription> loomGeneratedMods = descriptions.values().stream()
-      .filter(it -> it.hasAttribute(ModMetadata.class) && it.attribute(ModMetadata.class).containsCustomValue(LOOM_GENERATED_MARKER))
-      .toList();
-    loomGeneratedMods.forEach(module -> descriptions.remove(module.modId()));
-    if (!loomGeneratedMods.isEmpty()) {
-      descriptions.put(
-        "loom-generated",
-        ModDescription.create(
-          loomGeneratedMods,
-          "loom-generated",
-          "Loom Generated",
-          "",
-          "category",
-          "Parent mod to all Loom-generated library mods.",
-          emptyList(),
-          emptyList(),
-          emptyList(),
-          emptyMap(),
-          Environment.UNIVERSAL
-        )
-      );
-    }
-  }
-
-  private static List<ModDescription> findChildrenUsingModMenuMetadata(final String parentId, final Map<String, ModDescription> descriptions) {
-    return descriptions.values().stream()
-      .filter(description -> parentId.equals(parentUsingModMenuMetadata(description)))
-      .toList();
+  public static synchronized CompletableFuture<Mods> initialize() {
+    CompletableFuture<Mods> future = instance;
+    if (future == null) {
+      future = CompletableFuture.supplyAsync(Mods::new, runnable -> {
+        final Thread thread = new Thread(runnable, "Mods Command Indexer");
+        thread.setDaemon(true);
+        thread.start();
+      });
+      instance = future;
+    }
+    return future;
   }
 
-  private static @Nullable String parentUsingModMenuMetadata(final ModDescription modDescription) {
-    if (!modDescription.hasAttribute(ModMetadata.class)) {
-      return null;
+  // Waits a bounded time for indexing to finish, only for callers off the server and client main threads
+  public static Mods mods() {
+    CompletableFuture<Mods> future = instance;
+    if (future == null) {
+      future = initialize();
     }
-    final ModMetadata meta = modDescription.attribute(ModMetadata.class);
-    if (!meta.containsCustomValue("modmenu")
-      || !meta.getCustomValue("modmenu").getAsObject().containsKey("parent")) {
-      return null;
+    try {
+      return future.get(AWAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (final TimeoutException ex) {
+      throw new ModsNotReadyException();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ModsNotReadyException();
+    } catch (final ExecutionException ex) {
+      throw new IllegalStateException("Mods Command failed to index loaded mods, see the log for details.", ex.getCause());
     }
-    final CustomValue parent = meta.getCustomValue("modmenu")
-      .getAsObject()
-      .get("parent");
-    if (parent.getType() == CustomValue.CvType.STRING) {
-      return parent.getAsString();
-    } else {
-      return parent.getAsObject().get("id").getAsString();
+  }
+
+  // Never waits, a command or suggestion on the main thread must not stall a tick while indexing is still running
+  public static Mods modsNow() {
+    final Mods mods = modsIfReady();
+    if (mods != null) {
+      return mods;
+    }
+    final CompletableFuture<Mods> future = instance;
+    if (future != null && future.isCompletedExceptionally()) {
+      return mods(); // already done, rethrows the indexing failure without waiting
+    }
+    if (future == null) {
+      initialize();
+    }
+    throw new ModsNotReadyException();
+  }
+
+  public static @Nullable Mods modsIfReady() {
+    final CompletableFuture<Mods> future = instance;
+    if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+      return null;
     }
+    return future.join();
+  }
+
+  private enum SearchMode {
+    FILTER,
+    RANKED,
+    FUZZY
   }
 
-  private static final class Holder {
-    static final Mods INSTANCE = new Mods();
+  private record SearchKey(SearchMode mode, String query) {
   }
 }
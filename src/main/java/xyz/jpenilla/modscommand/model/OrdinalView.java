@@ -0,0 +1,72 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import org.jspecify.annotations.NullMarked;
+
+// A list view over a set of ordinals. Only per-word bit counts are precomputed, so the size is known
+// immediately and any index resolves without building the list of mods.
+@NullMarked
+final class OrdinalView extends AbstractList<ModDescription> implements RandomAccess {
+  private final List<ModDescription> mods;
+  private final long[] words;
+  private final int[] ranks;
+  private final int size;
+
+  OrdinalView(final List<ModDescription> mods, final BitSet ordinals) {
+    this.mods = mods;
+    this.words = ordinals.toLongArray();
+    this.ranks = new int[this.words.length];
+    int size = 0;
+    for (int word = 0; word < this.words.length; word++) {
+      this.ranks[word] = size;
+      size += Long.bitCount(this.words[word]);
+    }
+    this.size = size;
+  }
+
+  @Override
+  public ModDescription get(final int index) {
+    Objects.checkIndex(index, this.size);
+    // last word with fewer set bits before it than the index, empty words share their successor's rank
+    int low = 0;
+    int high = this.words.length - 1;
+    while (low < high) {
+      final int mid = (low + high + 1) >>> 1;
+      if (this.ranks[mid] <= index) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    long word = this.words[low];
+    for (int skip = index - this.ranks[low]; skip > 0; skip--) {
+      word &= word - 1;
+    }
+    return this.mods.get(low * Long.SIZE + Long.numberOfTrailingZeros(word));
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+}
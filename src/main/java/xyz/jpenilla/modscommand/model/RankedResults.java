@@ -0,0 +1,75 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import org.jspecify.annotations.NullMarked;
+
+// Ranks lazily: only the prefix of results that has actually been looked at gets ordered,
+// and reaching further re-selects from the stored scores instead of re-scoring the corpus
+@NullMarked
+final class RankedResults extends AbstractList<ModDescription> implements RandomAccess {
+  private static final int MIN_RANKED = 8;
+
+  private final List<ModDescription> mods;
+  private final FullTextIndex.Scores scores;
+  private int[] ranked = new int[0];
+
+  RankedResults(final List<ModDescription> mods, final FullTextIndex.Scores scores) {
+    this.mods = mods;
+    this.scores = scores;
+  }
+
+  @Override
+  public synchronized ModDescription get(final int index) {
+    Objects.checkIndex(index, this.size());
+    if (index >= this.ranked.length) {
+      this.rank(Math.min(this.size(), Math.max(index + 1, Math.max(this.ranked.length * 2, MIN_RANKED))));
+    }
+    return this.mods.get(this.scores.ordinals()[this.ranked[index]]);
+  }
+
+  @Override
+  public int size() {
+    return this.scores.ordinals().length;
+  }
+
+  private void rank(final int k) {
+    final int[] ordinals = this.scores.ordinals();
+    final float[] scores = this.scores.scores();
+    // min-heap of the best k seen so far, worst on top; ties go to the mod id that sorts first
+    final PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (a, b) -> {
+      final int byScore = Float.compare(scores[a], scores[b]);
+      return byScore != 0 ? byScore : Integer.compare(ordinals[b], ordinals[a]);
+    });
+    for (int i = 0; i < ordinals.length; i++) {
+      heap.offer(i);
+      if (heap.size() > k) {
+        heap.poll();
+      }
+    }
+    final int[] ranked = new int[heap.size()];
+    for (int i = ranked.length - 1; i >= 0; i--) {
+      ranked[i] = heap.poll();
+    }
+    this.ranked = ranked;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.jspecify.annotations.NullMarked;
+
+import static java.util.Comparator.comparingInt;
+
+@NullMarked
+final class TrigramIndex {
+  private static final int[] EMPTY = new int[0];
+
+  private final String[][] keys;
+  private final Map<Long, int[]> postings;
+
+  TrigramIndex(final List<String[]> keys) {
+    this.keys = keys.toArray(String[][]::new);
+    final Map<Long, IntList> builders = new HashMap<>();
+    for (int ordinal = 0; ordinal < this.keys.length; ordinal++) {
+      for (final String key : this.keys[ordinal]) {
+        for (int i = 0; i + 3 <= key.length(); i++) {
+          builders.computeIfAbsent(trigram(key, i), $ -> new IntList()).addIfAbsent(ordinal);
+        }
+      }
+    }
+    final Map<Long, int[]> postings = new HashMap<>(builders.size());
+    builders.forEach((trigram, list) -> postings.put(trigram, list.toArray()));
+    this.postings = postings;
+  }
+
+  static String fold(final String value) {
+    return value.toLowerCase(Locale.ENGLISH);
+  }
+
+  int[] search(final String foldedQuery) {
+    return this.search(foldedQuery, 0, Integer.MAX_VALUE);
+  }
+
+  // Only matches keys in [firstKey, lastKey) of each entry, postings still narrow down the candidates.
+  int[] search(final String foldedQuery, final int firstKey, final int lastKey) {
+    if (foldedQuery.length() < 3) {
+      return this.scan(foldedQuery, firstKey, lastKey); // too short to have any trigrams
+    }
+    final int[][] lists = new int[foldedQuery.length() - 2][];
+    for (int i = 0; i < lists.length; i++) {
+      final int[] list = this.postings.get(trigram(foldedQuery, i));
+      if (list == null) {
+        return EMPTY;
+      }
+      lists[i] = list;
+    }
+    Arrays.sort(lists, comparingInt(list -> list.length));
+
+    // sharing every trigram doesn't guarantee a contiguous match, so candidates still get verified below
+    int[] candidates = lists[0];
+    for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+      candidates = intersect(candidates, lists[i]);
+    }
+
+    final IntList matches = new IntList();
+    for (final int candidate : candidates) {
+      if (this.matches(candidate, foldedQuery, firstKey, lastKey)) {
+        matches.add(candidate);
+      }
+    }
+    return matches.toArray();
+  }
+
+  private int[] scan(final String foldedQuery, final int firstKey, final int lastKey) {
+    final IntList matches = new IntList();
+    for (int ordinal = 0; ordinal < this.keys.length; ordinal++) {
+      if (this.matches(ordinal, foldedQuery, firstKey, lastKey)) {
+        matches.add(ordinal);
+      }
+    }
+    return matches.toArray();
+  }
+
+  private boolean matches(final int ordinal, final String foldedQuery, final int firstKey, final int lastKey) {
+    final String[] keys = this.keys[ordinal];
+    for (int i = firstKey; i < Math.min(lastKey, keys.length); i++) {
+      if (keys[i].contains(foldedQuery)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int[] intersect(final int[] a, final int[] b) {
+    final int[] result = new int[Math.min(a.length, b.length)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        result[size++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  private static long trigram(final String key, final int start) {
+    return ((long) key.charAt(start) << 32) | ((long) key.charAt(start + 1) << 16) | key.charAt(start + 2);
+  }
+}
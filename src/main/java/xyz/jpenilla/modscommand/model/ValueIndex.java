@@ -0,0 +1,56 @@
+/*
+ * Mods Command
+ * Copyright (c) 2022 Jason Penilla
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.jpenilla.modscommand.model;
+
+import com.google.common.collect.Interner;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.NullMarked;
+
+// Maps each distinct folded value of a field to the ordinals having it. Fields like type and license
+// only have a handful of distinct values, so substring lookups scan those instead of every mod.
+@NullMarked
+final class ValueIndex {
+  private final Map<String, BitSet> ordinalsByValue;
+
+  ValueIndex(final List<? extends Collection<String>> valuesByOrdinal, final Interner<String> strings) {
+    final Map<String, BitSet> ordinalsByValue = new HashMap<>();
+    for (int ordinal = 0; ordinal < valuesByOrdinal.size(); ordinal++) {
+      for (final String value : valuesByOrdinal.get(ordinal)) {
+        ordinalsByValue.computeIfAbsent(strings.intern(TrigramIndex.fold(value)), $ -> new BitSet()).set(ordinal);
+      }
+    }
+    this.ordinalsByValue = Map.copyOf(ordinalsByValue);
+  }
+
+  BitSet matching(final String foldedValue) {
+    final BitSet exact = this.ordinalsByValue.get(foldedValue);
+    if (exact != null) {
+      return (BitSet) exact.clone();
+    }
+    final BitSet result = new BitSet();
+    this.ordinalsByValue.forEach((value, ordinals) -> {
+      if (value.contains(foldedValue)) {
+        result.or(ordinals);
+      }
+    });
+    return result;
+  }
+}
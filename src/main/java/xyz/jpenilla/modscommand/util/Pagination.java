@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.RandomAccess;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.JoinConfiguration;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
@@ -40,6 +41,11 @@ public interface Pagination<T> {
 
   ComponentLike item(T item, boolean lastOfPage);
 
+  // whether a page is rendered as one multi-line component instead of one component per line
+  default boolean joinLines() {
+    return true;
+  }
+
   default List<Component> render(
     final Collection<T> content,
     final int page,
@@ -49,8 +55,9 @@ public interface Pagination<T> {
       throw new IllegalArgumentException("Cannot paginate an empty collection.");
     }
 
-    final int pages = (int) Math.ceil(content.size() / (itemsPerPage * 1.00));
-    if (page < 1 || page > pages) {
+    final Slice<T> slice = slice(content, page, itemsPerPage);
+    final int pages = slice.pages();
+    if (!slice.inRange()) {
       return Collections.singletonList(this.pageOutOfRange(page, pages).asComponent());
     }
 
@@ -61,24 +68,9 @@ public interface Pagination<T> {
       renderedContent.add(header);
     }
 
-    final int start = itemsPerPage * (page - 1);
-    final int maxIndex = start + itemsPerPage;
-
-    if (content instanceof RandomAccess && content instanceof final List<T> contentList) {
-      for (int i = start; i < maxIndex; i++) {
-        if (i > content.size() - 1) {
-          break;
-        }
-        renderedContent.add(this.item(contentList.get(i), i == maxIndex - 1).asComponent());
-      }
-    } else {
-      final Iterator<T> iterator = content.iterator();
-      for (int i = 0; i < start && iterator.hasNext(); i++) {
-        iterator.next();
-      }
-      for (int i = start; i < maxIndex && iterator.hasNext(); ++i) {
-        renderedContent.add(this.item(iterator.next(), i == maxIndex - 1).asComponent());
-      }
+    final List<T> items = slice.items();
+    for (int i = 0; i < items.size(); i++) {
+      renderedContent.add(this.item(items.get(i), i == itemsPerPage - 1).asComponent());
     }
 
     final Component footer = this.footer(page, pages).asComponent();
@@ -86,18 +78,80 @@ public interface Pagination<T> {
       renderedContent.add(footer);
     }
 
+    if (this.joinLines()) {
+      return Collections.singletonList(Component.join(JoinConfiguration.newlines(), renderedContent));
+    }
     return Collections.unmodifiableList(renderedContent);
   }
 
+  default Precompiled<T> precompile(
+    final Collection<T> content,
+    final int itemsPerPage
+  ) {
+    if (content.isEmpty()) {
+      throw new IllegalArgumentException("Cannot paginate an empty collection.");
+    }
+
+    final int pages = pageCount(content.size(), itemsPerPage);
+    final List<List<Component>> renderedPages = new ArrayList<>(pages);
+    for (int page = 1; page <= pages; page++) {
+      renderedPages.add(this.render(content, page, itemsPerPage));
+    }
+    return new Precompiled<>(this, List.copyOf(renderedPages));
+  }
+
+  static int pageCount(final int size, final int itemsPerPage) {
+    return (int) Math.ceil(size / (itemsPerPage * 1.00));
+  }
+
+  // the items shown on a page, only touching that part of the content
+  static <T> Slice<T> slice(final Collection<T> content, final int page, final int itemsPerPage) {
+    final int pages = pageCount(content.size(), itemsPerPage);
+    if (page < 1 || page > pages) {
+      return new Slice<>(page, pages, List.of());
+    }
+    final int start = itemsPerPage * (page - 1);
+    final int end = Math.min(start + itemsPerPage, content.size());
+    if (content instanceof RandomAccess && content instanceof final List<T> contentList) {
+      return new Slice<>(page, pages, contentList.subList(start, end));
+    }
+    final List<T> items = new ArrayList<>(end - start);
+    final Iterator<T> iterator = content.iterator();
+    for (int i = 0; i < start && iterator.hasNext(); i++) {
+      iterator.next();
+    }
+    for (int i = start; i < end && iterator.hasNext(); i++) {
+      items.add(iterator.next());
+    }
+    return new Slice<>(page, pages, items);
+  }
+
   static <T> Builder<T> builder() {
     return new Builder<>();
   }
 
+  record Slice<T>(int page, int pages, List<T> items) {
+    public boolean inRange() {
+      return this.page >= 1 && this.page <= this.pages;
+    }
+  }
+
+  // every page of a collection that will not change, rendered up front so a page request is an index lookup
+  record Precompiled<T>(Pagination<T> pagination, List<List<Component>> pages) {
+    public List<Component> render(final int page) {
+      if (page < 1 || page > this.pages.size()) {
+        return Collections.singletonList(this.pagination.pageOutOfRange(page, this.pages.size()).asComponent());
+      }
+      return this.pages.get(page - 1);
+    }
+  }
+
   final class Builder<T> {
     private BiIntFunction<ComponentLike> headerRenderer = ($, $$) -> empty();
     private BiIntFunction<ComponentLike> footerRenderer = ($, $$) -> empty();
     private @Nullable BiIntFunction<ComponentLike> pageOutOfRangeRenderer = null;
     private @Nullable ItemRenderer<T> itemRenderer = null;
+    private boolean joinLines = true;
 
     private Builder() {
     }
@@ -122,12 +176,18 @@ public interface Pagination<T> {
       return this;
     }
 
+    public Builder<T> joinLines(final boolean joinLines) {
+      this.joinLines = joinLines;
+      return this;
+    }
+
     public Pagination<T> build() {
       return new DelegatingPaginationImpl<>(
         requireNonNull(this.headerRenderer, "Must provide a header renderer!"),
         requireNonNull(this.footerRenderer, "Must provide a footer renderer!"),
         requireNonNull(this.pageOutOfRangeRenderer, "Must provide a page out of range renderer!"),
-        requireNonNull(this.itemRenderer, "Must provide an item renderer!")
+        requireNonNull(this.itemRenderer, "Must provide an item renderer!"),
+        this.joinLines
       );
     }
 
@@ -140,7 +200,8 @@ public interface Pagination<T> {
       BiIntFunction<ComponentLike> headerRenderer,
       BiIntFunction<ComponentLike> footerRenderer,
       BiIntFunction<ComponentLike> pageOutOfRangeRenderer,
-      ItemRenderer<T> itemRenderer
+      ItemRenderer<T> itemRenderer,
+      boolean joinLines
     ) implements Pagination<T> {
       @Override
       public ComponentLike header(final int page, final int pages) {